@@ -12,6 +12,7 @@ buildscript {
 
 plugins {
     `java-library`
+    id("me.champeau.gradle.jmh") version "0.4.8"
 }
 
 apply(plugin = "com.novoda.bintray-release")
@@ -25,6 +26,17 @@ repositories {
 dependencies {
     implementation("org.spigotmc:spigot-api:1.13.2-R0.1-SNAPSHOT")
     api("org.jetbrains:annotations:17.0.0")
+    jmh("org.spigotmc:spigot-api:1.13.2-R0.1-SNAPSHOT")
+    testImplementation("org.spigotmc:spigot-api:1.13.2-R0.1-SNAPSHOT")
+    testImplementation("junit:junit:4.12")
+}
+
+jmh {
+    jmhVersion = "1.21"
+    // report the allocation rate next to the throughput
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    resultsFile = file("$buildDir/reports/jmh/results.json")
 }
 
 configure<PublishExtension> {
@@ -0,0 +1,18 @@
+import com.novoda.gradle.release.PublishExtension
+
+plugins {
+    `java-library`
+}
+
+// the bintray-release plugin is on the classpath of the root build script
+apply(plugin = "com.novoda.bintray-release")
+
+configure<PublishExtension> {
+    repoName = "RodiconRepo"
+    userOrg = "rodiconmc"
+    groupId = "net.frozenspace"
+    artifactId = "FrostLib-processor"
+    publishVersion = "1.0.0"
+    desc = "Annotation processor generating the configuration binders of FrostLib"
+    website = "https://github.com/rodiconmc/FrostLib"
+}
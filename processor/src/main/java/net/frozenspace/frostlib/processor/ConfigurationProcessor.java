@@ -0,0 +1,191 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generate a ConfigurationBinder for each class annotated with Configuration,
+ * the ConfigurationLoader then reads and writes the fields of the class without reflection.
+ * <p>
+ * Add it to the annotation processors of the plugin:
+ * <pre>
+ * annotationProcessor("net.frozenspace:FrostLib-processor:1.0.0")
+ * </pre>
+ * or {@code annotationProcessor(project(":processor"))} from the same build.
+ * The binder of {@code Settings} is {@code SettingsBinder} in the same package, {@code Outer_InnerBinder}
+ * for a nested class. Only the fields declared by the class and accessible from its package are bound,
+ * the private, final and static fields are still accessed through reflection.
+ * The binder of a generic class is bound to {@code Settings<?>}. The processor is isolating for the
+ * Gradle incremental compilation, each binder is generated from its configuration class only
+ *
+ * @author Frozen
+ */
+@SupportedAnnotationTypes( ConfigurationProcessor.CONFIGURATION )
+public class ConfigurationProcessor extends AbstractProcessor {
+
+    static final String CONFIGURATION = "net.frozenspace.frostlib.configuration.Configuration";
+    private static final String BINDER = "net.frozenspace.frostlib.configuration.ConfigurationBinder";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process( Set<? extends TypeElement> annotations, RoundEnvironment roundEnv ) {
+        for ( TypeElement annotation : annotations ) {
+            for ( Element element : roundEnv.getElementsAnnotatedWith( annotation ) ) {
+                if ( element.getKind() == ElementKind.CLASS ) {
+                    generate( (TypeElement) element );
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generate the binder of a configuration class
+     *
+     * @param type Configuration class
+     */
+    private void generate( TypeElement type ) {
+        for ( Element element = type; element instanceof TypeElement; element = element.getEnclosingElement() ) {
+            final NestingKind nesting = ( (TypeElement) element ).getNestingKind();
+            if ( element.getModifiers().contains( Modifier.PRIVATE ) || nesting == NestingKind.LOCAL || nesting == NestingKind.ANONYMOUS ) {
+                processingEnv.getMessager().printMessage( Diagnostic.Kind.NOTE,
+                        "No binder generated, the configuration isn't accessible from its package", type );
+                return;
+            }
+        }
+        final String packageName = processingEnv.getElementUtils().getPackageOf( type ).getQualifiedName().toString();
+        final String typeName = processingEnv.getTypeUtils().erasure( type.asType() ).toString();
+        final String binderName = ( packageName.isEmpty() ? typeName : typeName.substring( packageName.length() + 1 ) )
+                .replace( '.', '_' ) + "Binder";
+        // a generic configuration is bound with wildcards, Settings<?> instead of the raw type
+        final String boundName = type.getTypeParameters().isEmpty() ? typeName
+                : typeName + "<" + String.join( ", ", Collections.nCopies( type.getTypeParameters().size(), "?" ) ) + ">";
+        final List<VariableElement> fields = new ArrayList<>();
+        for ( VariableElement field : ElementFilter.fieldsIn( type.getEnclosedElements() ) ) {
+            final Set<Modifier> modifiers = field.getModifiers();
+            if ( !modifiers.contains( Modifier.PRIVATE ) && !modifiers.contains( Modifier.FINAL ) && !modifiers.contains( Modifier.STATIC ) ) {
+                fields.add( field );
+            }
+        }
+        try ( Writer writer = processingEnv.getFiler().createSourceFile(
+                packageName.isEmpty() ? binderName : packageName + "." + binderName, type ).openWriter() ) {
+            write( new PrintWriter( writer ), packageName, binderName, typeName, boundName, fields );
+        } catch ( IOException e ) {
+            processingEnv.getMessager().printMessage( Diagnostic.Kind.ERROR, "Can't generate " + binderName + ": " + e.getMessage(), type );
+        }
+    }
+
+    private void write( PrintWriter out, String packageName, String binderName, String typeName, String boundName,
+                        List<VariableElement> fields ) {
+        if ( !packageName.isEmpty() ) {
+            out.println( "package " + packageName + ";" );
+            out.println();
+        }
+        out.println( "/**" );
+        out.println( " * Binder of {@link " + typeName + "} generated by the FrostLib processor" );
+        out.println( " */" );
+        out.println( "public final class " + binderName + " implements " + BINDER + "<" + boundName + "> {" );
+        out.println();
+        out.print( "    private static final java.util.Set<String> FIELDS = java.util.Collections.unmodifiableSet( "
+                + "new java.util.HashSet<String>( java.util.Arrays.asList(" );
+        for ( int i = 0; i < fields.size(); i++ ) {
+            out.print( ( i > 0 ? ", \"" : " \"" ) + fields.get( i ).getSimpleName() + "\"" );
+        }
+        out.println( " ) ) );" );
+        out.println();
+        out.println( "    @Override" );
+        out.println( "    public java.util.Set<String> getFields() {" );
+        out.println( "        return FIELDS;" );
+        out.println( "    }" );
+        out.println();
+        out.println( "    @Override" );
+        out.println( "    public Object get( " + boundName + " obj, String field ) {" );
+        out.println( "        switch ( field ) {" );
+        for ( VariableElement field : fields ) {
+            out.println( "            case \"" + field.getSimpleName() + "\":" );
+            out.println( "                return obj." + field.getSimpleName() + ";" );
+        }
+        out.println( "            default:" );
+        out.println( "                throw new IllegalArgumentException( \"Unknown field \" + field );" );
+        out.println( "        }" );
+        out.println( "    }" );
+        out.println();
+        out.println( "    @Override" );
+        out.println( "    public void set( " + boundName + " obj, String field, Object value ) {" );
+        out.println( "        switch ( field ) {" );
+        boolean generic = false;
+        for ( VariableElement field : fields ) {
+            // casting an Object to a primitive type unboxes it, like Field.set does
+            final TypeMirror fieldType = processingEnv.getTypeUtils().erasure( field.asType() );
+            out.println( "            case \"" + field.getSimpleName() + "\":" );
+            if ( processingEnv.getTypeUtils().isSameType( field.asType(), fieldType ) ) {
+                out.println( "                obj." + field.getSimpleName() + " = (" + fieldType + ") value;" );
+            } else {
+                // a cast to List<String> or to a type variable is unchecked, the type is inferred by cast
+                out.println( "                obj." + field.getSimpleName() + " = cast( value );" );
+                generic = true;
+            }
+            out.println( "                break;" );
+        }
+        out.println( "            default:" );
+        out.println( "                throw new IllegalArgumentException( \"Unknown field \" + field );" );
+        out.println( "        }" );
+        out.println( "    }" );
+        out.println();
+        if ( generic ) {
+            out.println( "    @SuppressWarnings( \"unchecked\" )" );
+            out.println( "    private static <V> V cast( Object value ) {" );
+            out.println( "        return (V) value;" );
+            out.println( "    }" );
+            out.println();
+        }
+        out.println( "}" );
+        out.flush();
+    }
+
+}
@@ -8,3 +8,4 @@
  */
 
 rootProject.name = "FrostLib"
+include( "processor" )
@@ -0,0 +1,106 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the public operations of {@link ComponentParser} and {@link ComponentSerializer}
+ * on each message of the {@link Corpus}. Run with the gc profiler to get the allocation rate
+ *
+ * @author Frozen
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class ComponentParserBenchmark {
+
+    @Param( { "PLAIN", "TAG_HEAVY", "NESTED_HOVERS", "PLACEHOLDERS", "MALFORMED" } )
+    private Corpus corpus;
+
+    private String message;
+    private String[] placeholders;
+    private BaseComponent[] components;
+    private MessageTemplate template;
+
+    @Setup
+    public void setup() {
+        message = corpus.message;
+        placeholders = corpus.placeholders;
+        components = ComponentParser.parseFormat( message, placeholders );
+        template = MessageTemplate.compile( message );
+    }
+
+    @Benchmark
+    public BaseComponent[] parseFormat() {
+        return ComponentParser.parseFormat( message, placeholders );
+    }
+
+    @Benchmark
+    public String handlePlaceholders() {
+        return ComponentParser.handlePlaceholders( message, placeholders );
+    }
+
+    @Benchmark
+    public String stripTokens() {
+        return ComponentParser.stripTokens( message );
+    }
+
+    @Benchmark
+    public String escapeTokens() {
+        return ComponentParser.escapeTokens( message );
+    }
+
+    @Benchmark
+    public String serialize() {
+        return ComponentSerializer.serialize( components );
+    }
+
+    @Benchmark
+    public String toJson() {
+        return ComponentParser.toJson( message, placeholders );
+    }
+
+    @Benchmark
+    public BaseComponent[] render() {
+        return template.render( placeholders );
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+/**
+ * Representative rich messages used by the benchmarks, with the placeholders values they need
+ *
+ * @author Frozen
+ */
+public enum Corpus {
+
+    /**
+     * Player chat, no tag at all
+     */
+    PLAIN( "hey does anyone want to trade 32 iron for a diamond pickaxe? meet me at spawn in 5 minutes, thanks!" ),
+
+    /**
+     * Colors and decorations opened and closed around short texts
+     */
+    TAG_HEAVY( "<red>R</red><gold>A</gold><yellow>I</yellow><green>N</green><aqua>B</aqua><blue>O</blue>"
+            + "<light_purple>W</light_purple> <bold><italic>tags</italic></bold> <dark_gray>|</dark_gray> "
+            + "<strikethrough>old</strikethrough> <obfuscated>x</obfuscated> <underlined><gray>under</gray></underlined>" ),
+
+    /**
+     * Several hovers whose texts contain tags, with clicks around them
+     */
+    NESTED_HOVERS( "<gray>[<click:run_command:/warp spawn><hover:show_text:\"<gold>Spawn<gray> - <yellow>click <bold>to</bold> warp\">"
+            + "<green>Spawn</green></hover></click>] [<click:suggest_command:/msg Notch ><hover:show_text:\"<red>Notch "
+            + "<gray>(<aqua>Admin</aqua>)<dark_gray> | <gray>Level <green>42\"><red>Notch</red></hover></click>] "
+            + "[<hover:show_text:\"<light_purple><italic>Legendary</italic> <gold>Sword of <bold>Flames\"><gold>item</gold></hover>]" ),
+
+    /**
+     * A scoreboard like line made of many placeholders
+     */
+    PLACEHOLDERS( "<gold><player></gold> <gray>| <rank> | lvl <level> | <kills>K <deaths>D <ratio> | <coins>$ | "
+            + "<world> <x> <y> <z> | <ping>ms | <online>/<max> | <clan> | <streak> | <time>",
+            "player", "Steve", "rank", "VIP", "level", "42", "kills", "1337", "deaths", "12", "ratio", "111.4",
+            "coins", "250000", "world", "world_nether", "x", "-120", "y", "64", "z", "3302", "ping", "23",
+            "online", "87", "max", "200", "clan", "FRZ", "streak", "7", "time", "12:42" ),
+
+    /**
+     * Broken tags, unknown tags, stray chars and unbalanced quotes
+     */
+    MALFORMED( "<red unclosed <<<>>> <notatag> a > b < c <hover:show_text:\"no end <gold>> \"quotes\" everywhere\" "
+            + "<bold>still <unknown:arg:\"x\"> going <<red>> <> << > </not> <click:run_command:/a \"b\" c" );
+
+    final String message;
+    final String[] placeholders;
+
+    Corpus( String message, String... placeholders ) {
+        this.message = message;
+        this.placeholders = placeholders;
+    }
+
+}
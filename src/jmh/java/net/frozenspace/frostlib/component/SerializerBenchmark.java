@@ -0,0 +1,174 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.HoverEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the serialization of parsed components back to a rich message, the previous
+ * serialization using {@code String.format} is kept as reference. Run it with the gc
+ * profiler ({@code -prof gc}) to compare the allocation rates
+ *
+ * @author Frozen
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class SerializerBenchmark {
+
+    private static final String MESSAGE = "<gray>[<red>Arena</red>]</gray> <bold>Steve</bold> was slain by "
+            + "<click:suggest_command:/msg Alex ><hover:show_text:\"<gold>Alex <gray>(<red>20</red> hp)\">"
+            + "<yellow>Alex</yellow></hover></click> <italic>using</italic> <aqua>Diamond Sword</aqua>";
+
+    private final BaseComponent[] components = ComponentParser.parseFormat( MESSAGE );
+    private final StringBuilder buffer = new StringBuilder( 256 );
+
+    @Benchmark
+    public String serialize() {
+        return ComponentSerializer.serialize( components );
+    }
+
+    @Benchmark
+    public StringBuilder serializeAppendable() throws IOException {
+        buffer.setLength( 0 );
+        ComponentSerializer.serialize( buffer, components );
+        return buffer;
+    }
+
+    @Benchmark
+    public String serializeFormat() {
+        return format( components );
+    }
+
+    private static String format( BaseComponent... components ) {
+        StringBuilder sb = new StringBuilder();
+
+        for ( int i = 0; i < components.length; i++ ) {
+            BaseComponent comp = components[i];
+            BaseComponent prevComp = i > 0 ? components[i - 1] : null;
+
+            if ( !ChatColor.WHITE.equals( comp.getColor() ) ) {
+                sb.append( startTag( comp.getColor().name().toLowerCase() ) );
+            }
+            if ( comp.isBold() && ( prevComp == null || !prevComp.isBold() ) ) {
+                sb.append( startTag( "bold" ) );
+            }
+            if ( comp.isItalic() && ( prevComp == null || !prevComp.isItalic() ) ) {
+                sb.append( startTag( "italic" ) );
+            }
+            if ( comp.isObfuscated() && ( prevComp == null || !prevComp.isObfuscated() ) ) {
+                sb.append( startTag( "obfuscated" ) );
+            }
+            if ( comp.isStrikethrough() && ( prevComp == null || !prevComp.isStrikethrough() ) ) {
+                sb.append( startTag( "strikethrough" ) );
+            }
+            if ( comp.isUnderlined() && ( prevComp == null || !prevComp.isUnderlined() ) ) {
+                sb.append( startTag( "underlined" ) );
+            }
+
+            HoverEvent hov = comp.getHoverEvent();
+            if ( hov != null && ( prevComp == null || !equals( hov, prevComp.getHoverEvent() ) ) ) {
+                sb.append( startTag(
+                        "hover:" + hov.getAction().name().toLowerCase() + ":\"" + format( hov.getValue() ) + "\"" ) );
+            }
+            ClickEvent click = comp.getClickEvent();
+            if ( click != null && ( prevComp == null || !equals( click, prevComp.getClickEvent() ) ) ) {
+                sb.append(
+                        startTag( "click:" + click.getAction().name().toLowerCase() + ":\"" + click.getValue() + "\"" ) );
+            }
+
+            sb.append( comp.toPlainText() );
+
+            BaseComponent nextComp = i + 1 < components.length ? components[i + 1] : null;
+            if ( nextComp == null ) {
+                continue;
+            }
+
+            if ( comp.getColor() != ChatColor.WHITE
+                    && ( nextComp.getColor() == ChatColor.WHITE || nextComp.getColor() == null ) ) {
+                sb.append( endTag( comp.getColor().name().toLowerCase() ) );
+            }
+            if ( comp.isBold() && !nextComp.isBold() ) {
+                sb.append( endTag( "bold" ) );
+            }
+            if ( comp.isItalic() && !nextComp.isItalic() ) {
+                sb.append( endTag( "italic" ) );
+            }
+            if ( comp.isObfuscated() && !nextComp.isObfuscated() ) {
+                sb.append( endTag( "obfuscated" ) );
+            }
+            if ( comp.isStrikethrough() && !nextComp.isStrikethrough() ) {
+                sb.append( endTag( "strikethrough" ) );
+            }
+            if ( comp.isUnderlined() && !nextComp.isUnderlined() ) {
+                sb.append( endTag( "underlined" ) );
+            }
+            if ( comp.getHoverEvent() != null && !equals( comp.getHoverEvent(), nextComp.getHoverEvent() ) ) {
+                sb.append( endTag( "hover" ) );
+            }
+            if ( comp.getClickEvent() != null && !equals( comp.getClickEvent(), nextComp.getClickEvent() ) ) {
+                sb.append( endTag( "click" ) );
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private static boolean equals( ClickEvent c1, ClickEvent c2 ) {
+        if ( c2 == null || c1 == null ) return false;
+        return c1.equals( c2 ) || ( c1.getAction().equals( c2.getAction() ) && c1.getValue().equals( c2.getValue() ) );
+    }
+
+    private static boolean equals( HoverEvent h1, HoverEvent h2 ) {
+        if ( h2 == null || h1 == null ) return false;
+        return h1.equals( h2 ) || ( h1.getAction().equals( h2.getAction() ) );
+    }
+
+    private static String startTag( String content ) {
+        return String.format( "<%s>", content );
+    }
+
+    private static String endTag( String content ) {
+        return String.format( "</%s>", content );
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the resolution of the color and decoration tags on a tag heavy message,
+ * the previous resolution using {@code valueOf} is kept as reference
+ *
+ * @author Frozen
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class TagBenchmark {
+
+    private static final String MESSAGE = "<red>R</red><gold>A</gold><yellow>I</yellow><green>N</green>"
+            + "<aqua>B</aqua><blue>O</blue><light_purple>W</light_purple> <bold><italic>tags</italic></bold> "
+            + "<click:run_command:/spawn><hover:show_text:\"<gray>Go to spawn\"><underlined>spawn</underlined></hover></click> "
+            + "<player> <dark_gray>|</dark_gray> <strikethrough>old</strikethrough> <obfuscated>x</obfuscated>";
+
+    private static final String[] TOKENS = { "red", "/red", "bold", "/bold", "click:run_command:/spawn", "/click",
+            "hover:show_text:", "/hover", "player", "light_purple", "/light_purple", "underlined" };
+
+    @Benchmark
+    public BaseComponent[] parseFormat() {
+        return ComponentParser.parseFormat( MESSAGE );
+    }
+
+    @Benchmark
+    public void resolveTable( Blackhole blackhole ) {
+        for ( String token : TOKENS ) {
+            blackhole.consume( Tag.get( token ) );
+        }
+    }
+
+    @Benchmark
+    public void resolveValueOf( Blackhole blackhole ) {
+        for ( String token : TOKENS ) {
+            Object tag = valueOf( ComponentParser.TextDecoration.class, token );
+            if ( tag == null && token.startsWith( "/" ) ) {
+                tag = valueOf( ComponentParser.TextDecoration.class, token.replace( "/", "" ) );
+            }
+            if ( tag == null ) {
+                tag = valueOf( ChatColor.class, token );
+            }
+            if ( tag == null && token.startsWith( "/" ) ) {
+                tag = valueOf( ChatColor.class, token.replace( "/", "" ) );
+            }
+            blackhole.consume( tag );
+        }
+    }
+
+    private static <E extends Enum<E>> E valueOf( Class<E> type, String token ) {
+        try {
+            return Enum.valueOf( type, token.toUpperCase() );
+        } catch ( IllegalArgumentException ex ) {
+            return null;
+        }
+    }
+
+}
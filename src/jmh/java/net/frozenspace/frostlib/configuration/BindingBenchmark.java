@@ -0,0 +1,129 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.configuration;
+
+import org.apache.commons.lang.reflect.FieldUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the field accesses done by the {@link ConfigurationLoader} on a configuration of 200 fields,
+ * the cached method handles of the binding against the previous {@link FieldUtils} accesses
+ *
+ * @author Frozen
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class BindingBenchmark {
+
+    @Configuration( "settings" )
+    public static class Settings {
+        public int i0, i1, i2, i3, i4, i5, i6, i7, i8, i9;
+        public int i10, i11, i12, i13, i14, i15, i16, i17, i18, i19;
+        public int i20, i21, i22, i23, i24, i25, i26, i27, i28, i29;
+        public int i30, i31, i32, i33, i34, i35, i36, i37, i38, i39;
+        public int i40, i41, i42, i43, i44, i45, i46, i47, i48, i49;
+        public double d0, d1, d2, d3, d4, d5, d6, d7, d8, d9;
+        public double d10, d11, d12, d13, d14, d15, d16, d17, d18, d19;
+        public double d20, d21, d22, d23, d24, d25, d26, d27, d28, d29;
+        public double d30, d31, d32, d33, d34, d35, d36, d37, d38, d39;
+        public double d40, d41, d42, d43, d44, d45, d46, d47, d48, d49;
+        public boolean b0, b1, b2, b3, b4, b5, b6, b7, b8, b9;
+        public boolean b10, b11, b12, b13, b14, b15, b16, b17, b18, b19;
+        public boolean b20, b21, b22, b23, b24, b25, b26, b27, b28, b29;
+        public boolean b30, b31, b32, b33, b34, b35, b36, b37, b38, b39;
+        public boolean b40, b41, b42, b43, b44, b45, b46, b47, b48, b49;
+        public String s0, s1, s2, s3, s4, s5, s6, s7, s8, s9;
+        public String s10, s11, s12, s13, s14, s15, s16, s17, s18, s19;
+        public String s20, s21, s22, s23, s24, s25, s26, s27, s28, s29;
+        public String s30, s31, s32, s33, s34, s35, s36, s37, s38, s39;
+        public String s40, s41, s42, s43, s44, s45, s46, s47, s48, s49;
+    }
+
+    private final Settings settings = new Settings();
+    private final List<ConfigurationBinding.Property> properties = ConfigurationBinding.of( Settings.class ).load( false ).properties;
+    private final Object[] values = new Object[properties.size()];
+
+    public BindingBenchmark() {
+        for ( int i = 0; i < values.length; i++ ) {
+            final Class<?> type = properties.get( i ).field.getType();
+            if ( type == int.class ) {
+                values[i] = i;
+            } else if ( type == double.class ) {
+                values[i] = i / 2D;
+            } else if ( type == boolean.class ) {
+                values[i] = i % 2 == 0;
+            } else {
+                values[i] = "value " + i;
+            }
+        }
+    }
+
+    @Benchmark
+    public void readFieldUtils( Blackhole blackhole ) throws IllegalAccessException {
+        for ( ConfigurationBinding.Property property : properties ) {
+            blackhole.consume( FieldUtils.readField( property.field, settings, true ) );
+        }
+    }
+
+    @Benchmark
+    public void readHandles( Blackhole blackhole ) throws IllegalAccessException {
+        for ( ConfigurationBinding.Property property : ConfigurationBinding.of( Settings.class ).save( false ).properties ) {
+            blackhole.consume( property.get( settings ) );
+        }
+    }
+
+    @Benchmark
+    public Settings writeFieldUtils() throws IllegalAccessException {
+        for ( int i = 0; i < values.length; i++ ) {
+            FieldUtils.writeField( properties.get( i ).field, settings, values[i], true );
+        }
+        return settings;
+    }
+
+    @Benchmark
+    public Settings writeHandles() throws IllegalAccessException {
+        final List<ConfigurationBinding.Property> properties = ConfigurationBinding.of( Settings.class ).load( false ).properties;
+        for ( int i = 0; i < values.length; i++ ) {
+            properties.get( i ).set( settings, values[i] );
+        }
+        return settings;
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Render the messages on a pool of worker threads, so the parsing and the placeholders
+ * don't use the tick time of the server thread. The results can be delivered back on the server thread.
+ * <p>
+ * The placeholders resolvers given to {@link #render(MessageTemplate, Player, Placeholders)} are called on the
+ * calling thread before the render is submitted. The custom tags are resolved on the worker threads,
+ * they must not use the Bukkit API that isn't thread safe.
+ * <pre>
+ * AsyncRenderer renderer = new AsyncRenderer( plugin, 2 );
+ * renderer.send( player, template, "player", player.getName() );
+ * renderer.deliver( renderer.render( template, "top", top ), components -&gt; book.addPage( components ) );
+ * </pre>
+ *
+ * @author Frozen
+ */
+public final class AsyncRenderer {
+
+    private final Plugin plugin;
+    private final Executor executor;
+    private final ExecutorService ownExecutor;
+    private final Executor mainThread;
+
+    /**
+     * Render the messages on the given executor
+     *
+     * @param plugin   Plugin used to schedule the delivery on the server thread
+     * @param executor Executor of the renders
+     */
+    public AsyncRenderer( @NotNull Plugin plugin, @NotNull Executor executor ) {
+        this( plugin, executor, null );
+    }
+
+    /**
+     * Render the messages on a new pool of daemon threads, stopped by {@link #shutdown()}
+     *
+     * @param plugin  Plugin used to schedule the delivery on the server thread
+     * @param threads Number of worker threads
+     */
+    public AsyncRenderer( @NotNull Plugin plugin, int threads ) {
+        this( plugin, null, createPool( threads ) );
+    }
+
+    private AsyncRenderer( @NotNull Plugin plugin, @Nullable Executor executor, @Nullable ExecutorService ownExecutor ) {
+        this.plugin = plugin;
+        this.ownExecutor = ownExecutor;
+        this.executor = ownExecutor != null ? ownExecutor : executor;
+        this.mainThread = command -> new BukkitRunnable() {
+            @Override
+            public void run() {
+                command.run();
+            }
+        }.runTask( this.plugin );
+    }
+
+    @NotNull
+    private static ExecutorService createPool( int threads ) {
+        if ( threads <= 0 ) {
+            throw new IllegalArgumentException( "The number of render threads must be positive" );
+        }
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool( threads, runnable -> {
+            Thread thread = new Thread( runnable, "FrostLib Render Thread #" + count.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        } );
+    }
+
+    /**
+     * Render the template on a worker thread
+     *
+     * @param template     Template to render
+     * @param placeholders Placeholders values as key, value, key, value...
+     * @return The components, completed on a worker thread
+     */
+    @NotNull
+    public CompletableFuture<BaseComponent[]> render( @NotNull MessageTemplate template, @NotNull String... placeholders ) {
+        return render( () -> template.render( placeholders ) );
+    }
+
+    /**
+     * Render the template on a worker thread
+     *
+     * @param template     Template to render
+     * @param placeholders Placeholders values by key, must not be modified until the render is completed
+     * @return The components, completed on a worker thread
+     */
+    @NotNull
+    public CompletableFuture<BaseComponent[]> render( @NotNull MessageTemplate template, @NotNull Map<String, String> placeholders ) {
+        return render( () -> template.render( placeholders ) );
+    }
+
+    /**
+     * Render the template on a worker thread, the placeholders used by the template are resolved
+     * on this thread before the render is submitted, so the resolvers can use the Bukkit API
+     *
+     * @param template     Template to render
+     * @param viewer       Player who will receive the message
+     * @param placeholders Registry of the placeholders resolvers
+     * @return The components, completed on a worker thread
+     */
+    @NotNull
+    public CompletableFuture<BaseComponent[]> render( @NotNull MessageTemplate template, @Nullable Player viewer,
+                                                      @NotNull Placeholders placeholders ) {
+        MessageTemplate.Values values = template.resolve( viewer, placeholders );
+        return render( () -> template.render( values ) );
+    }
+
+    /**
+     * Parse the message on a worker thread
+     *
+     * @param richMessage  Message to parse
+     * @param placeholders Placeholders values as key, value, key, value...
+     * @return The components, completed on a worker thread
+     * @see ComponentParser#parseFormat(String, String...)
+     */
+    @NotNull
+    public CompletableFuture<BaseComponent[]> parseFormat( @NotNull String richMessage, @NotNull String... placeholders ) {
+        return render( () -> ComponentParser.parseFormat( richMessage, placeholders ) );
+    }
+
+    /**
+     * Run any render on a worker thread
+     *
+     * @param renderer Function creating the components
+     * @return The components, completed on a worker thread
+     */
+    @NotNull
+    public CompletableFuture<BaseComponent[]> render( @NotNull Supplier<BaseComponent[]> renderer ) {
+        return CompletableFuture.supplyAsync( renderer, executor );
+    }
+
+    /**
+     * Give the result of a render to the callback on the server thread.
+     * The callback isn't called if the render failed, the returned future is completed with the error
+     *
+     * @param future   Render to wait for
+     * @param callback Receiver of the components, called on the server thread
+     * @return A future completed once the callback has been called
+     */
+    @NotNull
+    public CompletableFuture<Void> deliver( @NotNull CompletableFuture<BaseComponent[]> future,
+                                            @NotNull Consumer<BaseComponent[]> callback ) {
+        return future.thenAcceptAsync( callback, mainThread );
+    }
+
+    /**
+     * Render the template on a worker thread and send it to the player from the server thread
+     *
+     * @param viewer       Player receiving the message
+     * @param template     Template to render
+     * @param placeholders Placeholders values as key, value, key, value...
+     * @return A future completed once the message has been sent
+     */
+    @NotNull
+    public CompletableFuture<Void> send( @NotNull Player viewer, @NotNull MessageTemplate template, @NotNull String... placeholders ) {
+        return deliver( render( template, placeholders ), components -> viewer.spigot().sendMessage( components ) );
+    }
+
+    /**
+     * Get the executor running the tasks on the server thread, at the next tick
+     *
+     * @return The executor of the server thread
+     */
+    @NotNull
+    public Executor getMainThreadExecutor() {
+        return mainThread;
+    }
+
+    /**
+     * Stop the worker threads created by this renderer, the renders already submitted are completed.
+     * Nothing is done if the executor was given to the constructor
+     */
+    public void shutdown() {
+        if ( ownExecutor != null ) {
+            ownExecutor.shutdown();
+        }
+    }
+
+}
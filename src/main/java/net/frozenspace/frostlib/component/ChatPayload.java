@@ -0,0 +1,388 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.HoverEvent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.api.chat.TranslatableComponent;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Estimate the size of the chat json sent to the client and keep the messages under a budget.
+ * <p>
+ * The size is the number of chars of the json written by {@link net.md_5.bungee.chat.ComponentSerializer},
+ * computed without writing it. The client refuses the chat messages longer than {@link #MAX_LENGTH}.
+ * <pre>
+ * ChatPayload.send( player, 32767, book.render( "page", page ) );
+ * </pre>
+ *
+ * @author Frozen
+ */
+public class ChatPayload {
+
+    /**
+     * Maximum length of the json of a chat message accepted by the client
+     */
+    public static final int MAX_LENGTH = 262144;
+
+    // {"extra":[ ... ],"text":""}
+    private static final int WRAPPER = "{\"extra\":[".length() + "],\"text\":\"\"}".length();
+
+    /**
+     * Private constructor for preventing instantiation
+     */
+    private ChatPayload() {
+    }
+
+    /**
+     * Estimate the size of the json of a message
+     *
+     * @param components Components of the message
+     * @return The number of chars of the json
+     */
+    public static int estimate( @NotNull BaseComponent... components ) {
+        if ( components.length == 1 ) {
+            return estimate( components[0] );
+        }
+        int size = WRAPPER + Math.max( 0, components.length - 1 );
+        for ( BaseComponent component : components ) {
+            size += estimate( component );
+        }
+        return size;
+    }
+
+    /**
+     * Estimate the size of the json of a rendered template, without creating the components
+     *
+     * @param template     Template to render
+     * @param placeholders Placeholders values as key, value, key, value...
+     * @return The number of chars of the json
+     */
+    public static int estimate( @NotNull MessageTemplate template, @NotNull String... placeholders ) {
+        SizeCounter counter = new SizeCounter();
+        template.render( template.values( placeholders ), counter );
+        if ( counter.count == 0 ) {
+            // {"text":""}
+            return 11;
+        }
+        return counter.count == 1 ? counter.size : WRAPPER + counter.size + counter.count - 1;
+    }
+
+    /**
+     * Estimate the size of the json of a component and its extras
+     *
+     * @param component Component to measure
+     * @return The number of chars of the json
+     */
+    public static int estimate( @NotNull BaseComponent component ) {
+        int size = 0;
+        int fields = 0;
+        if ( component.getColorRaw() != null ) {
+            size += field( "color" ) + component.getColorRaw().getName().length() + 2;
+            fields++;
+        }
+        Boolean[] decorations = { component.isBoldRaw(), component.isItalicRaw(), component.isUnderlinedRaw(),
+                component.isStrikethroughRaw(), component.isObfuscatedRaw() };
+        String[] names = { "bold", "italic", "underlined", "strikethrough", "obfuscated" };
+        for ( int i = 0; i < decorations.length; i++ ) {
+            if ( decorations[i] != null ) {
+                size += field( names[i] ) + ( decorations[i] ? 4 : 5 );
+                fields++;
+            }
+        }
+        if ( component.getInsertion() != null ) {
+            size += field( "insertion" ) + string( component.getInsertion() );
+            fields++;
+        }
+        ClickEvent click = component.getClickEvent();
+        if ( click != null ) {
+            size += field( "clickEvent" ) + event( click.getAction().name() ) + string( click.getValue() );
+            fields++;
+        }
+        HoverEvent hover = component.getHoverEvent();
+        if ( hover != null ) {
+            size += field( "hoverEvent" ) + event( hover.getAction().name() ) + array( hover.getValue() );
+            fields++;
+        }
+        if ( component.getExtra() != null ) {
+            size += field( "extra" ) + array( component.getExtra().toArray( new BaseComponent[0] ) );
+            fields++;
+        }
+        if ( component instanceof TextComponent ) {
+            size += field( "text" ) + string( ( (TextComponent) component ).getText() );
+            fields++;
+        } else if ( component instanceof TranslatableComponent ) {
+            TranslatableComponent translatable = (TranslatableComponent) component;
+            size += field( "translate" ) + string( translatable.getTranslate() );
+            fields++;
+            if ( translatable.getWith() != null ) {
+                size += field( "with" ) + array( translatable.getWith().toArray( new BaseComponent[0] ) );
+                fields++;
+            }
+        } else {
+            // other component types are rare, measure their real json
+            return net.md_5.bungee.chat.ComponentSerializer.toString( component ).length();
+        }
+        return 2 + size + Math.max( 0, fields - 1 );
+    }
+
+    /**
+     * Estimate the size of the json of a text component with the style, without the text value
+     *
+     * @param style Style of the text component
+     * @return The number of chars of the json, including the quotes of the empty text value
+     */
+    static int estimate( @NotNull Style style ) {
+        // {"text":""}
+        int size = 2 + field( "text" ) + 2;
+        if ( style.color != null ) {
+            size += field( "color" ) + style.color.getName().length() + 3;
+        }
+        for ( ComponentParser.TextDecoration decoration : ComponentParser.TextDecoration.values() ) {
+            if ( style.has( decoration ) ) {
+                size += field( decoration.name() ) + 5;
+            }
+        }
+        if ( style.click != null ) {
+            size += field( "clickEvent" ) + event( style.click.getAction().name() ) + string( style.click.getValue() ) + 1;
+        }
+        if ( style.hover != null ) {
+            size += field( "hoverEvent" ) + event( style.hover.getAction().name() ) + array( style.hover.getValue() ) + 1;
+        }
+        return size;
+    }
+
+    /**
+     * Split a message in several messages whose json is under the budget. The text components
+     * too long are split in several components, a component that can't be split is sent alone
+     *
+     * @param budget     Maximum size of the json of each message
+     * @param components Components of the message
+     * @return The messages, a single one if the message is under the budget
+     */
+    @NotNull
+    public static List<BaseComponent[]> split( int budget, @NotNull BaseComponent... components ) {
+        if ( budget <= 0 ) {
+            throw new IllegalArgumentException( "The budget must be positive" );
+        }
+        List<BaseComponent[]> messages = new ArrayList<>();
+        List<BaseComponent> current = new ArrayList<>();
+        int currentSize = 0;
+        for ( BaseComponent component : components ) {
+            int size = estimate( component );
+            if ( current.isEmpty() ? size <= budget : WRAPPER + currentSize + current.size() + size <= budget ) {
+                current.add( component );
+                currentSize += size;
+                continue;
+            }
+            if ( !current.isEmpty() ) {
+                messages.add( current.toArray( new BaseComponent[0] ) );
+                current.clear();
+                currentSize = 0;
+            }
+            if ( size > budget && isSplittable( component ) ) {
+                List<TextComponent> parts = splitText( (TextComponent) component, budget );
+                for ( int i = 0; i < parts.size() - 1; i++ ) {
+                    messages.add( new BaseComponent[]{ parts.get( i ) } );
+                }
+                component = parts.get( parts.size() - 1 );
+                size = estimate( component );
+            }
+            current.add( component );
+            currentSize = size;
+        }
+        if ( !current.isEmpty() || messages.isEmpty() ) {
+            messages.add( current.toArray( new BaseComponent[0] ) );
+        }
+        return messages;
+    }
+
+    /**
+     * Keep the beginning of a message whose json is under the budget
+     *
+     * @param budget     Maximum size of the json of the message
+     * @param components Components of the message
+     * @return The components kept, the same array if the message is under the budget
+     */
+    @NotNull
+    public static BaseComponent[] truncate( int budget, @NotNull BaseComponent... components ) {
+        if ( estimate( components ) <= budget ) {
+            return components;
+        }
+        return split( budget, components ).get( 0 );
+    }
+
+    /**
+     * Send a message split in several messages under the budget
+     *
+     * @param viewer     Player receiving the message
+     * @param budget     Maximum size of the json of each message, at most {@link #MAX_LENGTH}
+     * @param components Components of the message
+     * @return The number of messages sent
+     */
+    public static int send( @NotNull Player viewer, int budget, @NotNull BaseComponent... components ) {
+        List<BaseComponent[]> messages = split( Math.min( budget, MAX_LENGTH ), components );
+        for ( BaseComponent[] message : messages ) {
+            viewer.spigot().sendMessage( message );
+        }
+        return messages.size();
+    }
+
+    private static boolean isSplittable( @NotNull BaseComponent component ) {
+        return component.getClass() == TextComponent.class
+                && ( component.getExtra() == null || component.getExtra().isEmpty() );
+    }
+
+    @NotNull
+    private static List<TextComponent> splitText( @NotNull TextComponent component, int budget ) {
+        TextComponent empty = new TextComponent( component );
+        empty.setText( "" );
+        // at least one char per part, even if the formatting alone is over the budget
+        int maximum = Math.max( 1, budget - estimate( empty ) );
+        List<TextComponent> parts = new ArrayList<>();
+        String text = component.getText();
+        int start = 0;
+        int size = 0;
+        for ( int i = 0; i < text.length(); i++ ) {
+            int length = escapedLength( text.charAt( i ) );
+            if ( size + length > maximum && i > start && !Character.isLowSurrogate( text.charAt( i ) ) ) {
+                parts.add( part( component, text.substring( start, i ) ) );
+                start = i;
+                size = 0;
+            }
+            size += length;
+        }
+        parts.add( part( component, text.substring( start ) ) );
+        return parts;
+    }
+
+    @NotNull
+    private static TextComponent part( @NotNull TextComponent component, @NotNull String text ) {
+        TextComponent part = new TextComponent( component );
+        part.setText( text );
+        return part;
+    }
+
+    private static int field( @NotNull String name ) {
+        // "name":
+        return name.length() + 3;
+    }
+
+    private static int event( @NotNull String action ) {
+        // {"action":"action","value": ... }
+        return "{\"action\":\"\",\"value\":}".length() + action.length();
+    }
+
+    private static int array( @Nullable BaseComponent[] components ) {
+        if ( components == null ) {
+            return 4;
+        }
+        int size = 2 + Math.max( 0, components.length - 1 );
+        for ( BaseComponent component : components ) {
+            size += estimate( component );
+        }
+        return size;
+    }
+
+    private static int string( @Nullable String text ) {
+        if ( text == null ) {
+            return 4;
+        }
+        int size = 2;
+        for ( int i = 0; i < text.length(); i++ ) {
+            size += escapedLength( text.charAt( i ) );
+        }
+        return size;
+    }
+
+    /**
+     * Get the length of a char escaped in a json string, like Gson does by default
+     * the html chars are escaped
+     *
+     * @param c Char to escape
+     * @return The number of chars written
+     */
+    private static int escapedLength( char c ) {
+        switch ( c ) {
+            case '"':
+            case '\\':
+            case '\n':
+            case '\r':
+            case '\t':
+            case '\b':
+            case '\f':
+                return 2;
+            case '<':
+            case '>':
+            case '&':
+            case '=':
+            case '\'':
+            case '\u2028':
+            case '\u2029':
+                return 6;
+            default:
+                return c < 0x20 ? 6 : 1;
+        }
+    }
+
+    /**
+     * Sum the size of the text parts of a template render
+     */
+    private static final class SizeCounter implements FormatParser.Sink {
+
+        private int size = 0;
+        private int count = 0;
+
+        @Override
+        public void text( @NotNull Style style, @NotNull CharSequence text ) {
+            size += style.size();
+            for ( int i = 0; i < text.length(); i++ ) {
+                size += escapedLength( text.charAt( i ) );
+            }
+            count++;
+        }
+
+        @Override
+        public void tag( @NotNull String name, @Nullable String argument ) {
+            TagResolver resolver = ComponentParser.getTagResolver( name );
+            BaseComponent[] components = resolver != null ? resolver.resolve( argument ) : null;
+            if ( components != null ) {
+                for ( BaseComponent component : components ) {
+                    size += estimate( component );
+                    count++;
+                }
+            }
+        }
+
+    }
+
+}
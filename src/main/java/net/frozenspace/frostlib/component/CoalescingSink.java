@@ -0,0 +1,78 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Merge the consecutive text parts having the same {@link Style} before reporting them to
+ * another sink, so {@code <red>a</red><red>b</red>} produces one part instead of two
+ *
+ * @author Frozen
+ */
+final class CoalescingSink implements FormatParser.Sink {
+
+    private final FormatParser.Sink sink;
+    private final StringBuilder buffer = new StringBuilder();
+    private Style style;
+
+    /**
+     * Default constructor
+     *
+     * @param sink Receiver of the merged text parts
+     */
+    CoalescingSink( @NotNull FormatParser.Sink sink ) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void text( @NotNull Style style, @NotNull CharSequence text ) {
+        if ( this.style != null && !this.style.same( style ) ) {
+            flush();
+        }
+        if ( this.style == null ) {
+            this.style = style;
+        }
+        buffer.append( text );
+    }
+
+    @Override
+    public void tag( @NotNull String name, @Nullable String argument ) {
+        flush();
+        sink.tag( name, argument );
+    }
+
+    /**
+     * Report the pending text part, must be called once everything was parsed
+     */
+    void flush() {
+        if ( style != null ) {
+            sink.text( style, buffer );
+            buffer.setLength( 0 );
+            style = null;
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Send a message to many players, rendering it once per distinct set of viewer dependent inputs
+ * (locale, permission group...) instead of once per player.
+ * <pre>
+ * int renders = ComponentBroadcast.send( Bukkit.getOnlinePlayers(), template, placeholders, Player::getLocale );
+ * </pre>
+ *
+ * @author Frozen
+ */
+public class ComponentBroadcast {
+
+    /**
+     * Private constructor for preventing instantiation
+     */
+    private ComponentBroadcast() {
+    }
+
+    /**
+     * Send the same components to all the recipients
+     *
+     * @param recipients Players receiving the message
+     * @param components Components to send
+     * @return The number of renders, always 1
+     */
+    public static int send( @NotNull Iterable<? extends Player> recipients, @NotNull BaseComponent... components ) {
+        for ( Player player : recipients ) {
+            player.spigot().sendMessage( components );
+        }
+        return 1;
+    }
+
+    /**
+     * Render the template once per key and send it to all the recipients
+     *
+     * @param recipients   Players receiving the message
+     * @param template     Template to render
+     * @param placeholders Registry of the placeholders resolvers, the values must only depend on the key of the viewer
+     * @param key          Function giving the viewer dependent inputs of a player
+     * @return The number of distinct renders
+     */
+    public static int send( @NotNull Iterable<? extends Player> recipients, @NotNull MessageTemplate template,
+                            @NotNull Placeholders placeholders, @NotNull Function<? super Player, ?> key ) {
+        return send( recipients, key, viewer -> template.render( viewer, placeholders ) );
+    }
+
+    /**
+     * Render the message once per key and send it to all the recipients.
+     * The first recipient of each key is given to the renderer
+     *
+     * @param recipients Players receiving the message
+     * @param key        Function giving the viewer dependent inputs of a player
+     * @param renderer   Function rendering the message for a player, its result must only depend on the key of the player
+     * @return The number of distinct renders
+     */
+    public static int send( @NotNull Iterable<? extends Player> recipients, @NotNull Function<? super Player, ?> key,
+                            @NotNull Function<? super Player, BaseComponent[]> renderer ) {
+        Map<Object, BaseComponent[]> rendered = new HashMap<>();
+        for ( Player player : recipients ) {
+            Object viewerKey = key.apply( player );
+            BaseComponent[] components = rendered.get( viewerKey );
+            if ( components == null ) {
+                components = renderer.apply( player );
+                rendered.put( viewerKey, components );
+            }
+            player.spigot().sendMessage( components );
+        }
+        return rendered.size();
+    }
+
+}
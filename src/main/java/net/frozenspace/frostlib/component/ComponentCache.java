@@ -0,0 +1,162 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Cache of the components parsed by {@link ComponentParser#parseFormat(String)},
+ * keyed by the message after the placeholders replacement. Only the most recently used
+ * messages are kept.
+ * <p>
+ * The same components are returned for the same message, they are shared between all
+ * the callers and must not be modified. The messages containing custom tags are parsed each time,
+ * and the cache is cleared when a tag is registered or unregistered.
+ * <pre>
+ * ComponentCache cache = new ComponentCache( 500 );
+ * player.spigot().sendMessage( cache.parseFormat( messages.join, "player", player.getName() ) );
+ * </pre>
+ *
+ * @author Frozen
+ */
+public final class ComponentCache {
+
+    private final LruCache<String, BaseComponent[]> cache;
+    private volatile int tagsVersion = ComponentParser.getTagsVersion();
+
+    /**
+     * Default constructor
+     *
+     * @param maximumSize Maximum number of messages kept in the cache
+     */
+    public ComponentCache( int maximumSize ) {
+        this.cache = new LruCache<>( maximumSize );
+    }
+
+    /**
+     * Parse the message or get it from the cache
+     *
+     * @param richMessage Message to parse
+     * @return The components, shared with the other callers
+     */
+    @NotNull
+    public BaseComponent[] parseFormat( @NotNull String richMessage ) {
+        int version = ComponentParser.getTagsVersion();
+        if ( version != tagsVersion ) {
+            cache.clear();
+            tagsVersion = version;
+        }
+        BaseComponent[] components = cache.get( richMessage );
+        if ( components == null ) {
+            ComponentCollector collector = new ComponentCollector();
+            FormatParser parser = new FormatParser( collector, null );
+            parser.parse( richMessage );
+            components = collector.create();
+            if ( !parser.hasTags() ) {
+                cache.put( richMessage, components );
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Replace the placeholders then parse the message or get it from the cache
+     *
+     * @param richMessage  Message to parse
+     * @param placeholders Placeholders values as key, value, key, value...
+     * @return The components, shared with the other callers
+     */
+    @NotNull
+    public BaseComponent[] parseFormat( @NotNull String richMessage, @NotNull String... placeholders ) {
+        return parseFormat( ComponentParser.handlePlaceholders( richMessage, placeholders ) );
+    }
+
+    /**
+     * Replace the placeholders then parse the message or get it from the cache
+     *
+     * @param richMessage  Message to parse
+     * @param placeholders Placeholders values by key
+     * @return The components, shared with the other callers
+     */
+    @NotNull
+    public BaseComponent[] parseFormat( @NotNull String richMessage, @NotNull Map<String, String> placeholders ) {
+        return parseFormat( ComponentParser.handlePlaceholders( richMessage, placeholders ) );
+    }
+
+    /**
+     * Get the number of messages found in the cache
+     *
+     * @return The number of hits
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Get the number of messages not found in the cache, they have been parsed
+     *
+     * @return The number of misses
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * Get the number of messages removed from the cache because it was full
+     *
+     * @return The number of evictions
+     */
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    /**
+     * Get the number of messages in the cache
+     *
+     * @return The size of the cache
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Get the maximum number of messages kept in the cache
+     *
+     * @return The maximum size of the cache
+     */
+    public int getMaximumSize() {
+        return cache.getMaximumSize();
+    }
+
+    /**
+     * Remove all the messages from the cache, the counters are kept
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collect the text parts reported by a {@link FormatParser} or a {@link MessageTemplate}
+ * as formatted {@link TextComponent}, and the components of the custom tags
+ *
+ * @author Frozen
+ */
+final class ComponentCollector implements FormatParser.Sink {
+
+    private final List<BaseComponent> components = new ArrayList<>();
+
+    @Override
+    public void text( @NotNull Style style, @NotNull CharSequence text ) {
+        TextComponent component = new TextComponent( text.toString() );
+        style.apply( component );
+        components.add( component );
+    }
+
+    @Override
+    public void tag( @NotNull String name, @Nullable String argument ) {
+        TagResolver resolver = ComponentParser.getTagResolver( name );
+        BaseComponent[] resolved = resolver != null ? resolver.resolve( argument ) : null;
+        if ( resolved != null ) {
+            Collections.addAll( components, resolved );
+        }
+    }
+
+    /**
+     * Create the components collected
+     *
+     * @return The components, or a single empty component if nothing was collected
+     */
+    @NotNull
+    BaseComponent[] create() {
+        if ( components.isEmpty() ) {
+            // lets just return an empty component
+            return new BaseComponent[]{ new TextComponent( "" ) };
+        }
+        return components.toArray( new BaseComponent[0] );
+    }
+
+    /**
+     * Remove the components collected, to collect the next part of a message
+     */
+    void clear() {
+        components.clear();
+    }
+
+}
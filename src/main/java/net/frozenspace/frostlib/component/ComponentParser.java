@@ -23,82 +23,223 @@
 */
 package net.frozenspace.frostlib.component;
 
-import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.ClickEvent;
-import net.md_5.bungee.api.chat.ComponentBuilder;
 import net.md_5.bungee.api.chat.HoverEvent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
-
-import java.util.EnumSet;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Stack;
+import java.util.Objects;
 import java.util.function.Consumer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * @author MiniDigger (https://www.spigotmc.org/members/minidigger.6039)
  */
 public class ComponentParser {
 
-    private static Pattern pattern = Pattern.compile( "((?<start><)(?<token>([^<>]+)|([^<>]+\"(?<inner>[^\"]+)\"))(?<end>>))+?" );
+    private static final Map<String, TagResolver> tags = new LinkedHashMap<>();
+    private static volatile TagTable<TagResolver> resolvers = new TagTable<>( true );
+    private static volatile int tagsVersion = 0;
+
+    /**
+     * The same tooltips are found in many messages, the parsed hover texts are kept and copied
+     * in a new event for each message. Keyed by the raw tag, so by action and text
+     */
+    private static final LruCache<String, BaseComponent[]> hoverCache = new LruCache<>( 512 );
+    /**
+     * Templates compiled by {@link #parseFormat(String, Player, Placeholders)}, keyed by the message
+     */
+    private static final LruCache<String, MessageTemplate> templateCache = new LruCache<>( 256 );
+
+    /**
+     * Register a custom tag, the tag name is case insensitive and can be followed
+     * by an argument like {@code <ping:Steve>}
+     *
+     * @param name     Name of the tag
+     * @param resolver Resolver of the tag
+     */
+    public static synchronized void registerTag( @NotNull String name, @NotNull TagResolver resolver ) {
+        String key = name.toLowerCase( Locale.ROOT );
+        if ( key.isEmpty() || !MessageTemplate.isName( key ) ) {
+            throw new IllegalArgumentException( "Invalid tag name " + name );
+        }
+        if ( Tag.get( key ) != null || key.equals( "click" ) || key.equals( "hover" ) ) {
+            throw new IllegalArgumentException( "Can't override the default tag " + name );
+        }
+        tags.put( key, resolver );
+        rebuildResolvers();
+    }
+
+    /**
+     * Register a custom tag always replaced by the same components
+     *
+     * @param name       Name of the tag
+     * @param components Components inserted in place of the tag
+     */
+    public static void registerTag( @NotNull String name, @NotNull BaseComponent... components ) {
+        registerTag( name, argument -> components );
+    }
+
+    /**
+     * Unregister a custom tag
+     *
+     * @param name Name of the tag
+     */
+    public static synchronized void unregisterTag( @NotNull String name ) {
+        if ( tags.remove( name.toLowerCase( Locale.ROOT ) ) != null ) {
+            rebuildResolvers();
+        }
+    }
+
+    private static void rebuildResolvers() {
+        TagTable<TagResolver> table = new TagTable<>( true );
+        tags.forEach( table::put );
+        resolvers = table;
+        tagsVersion++;
+        // the cached hovers may contain a tag that is now resolved differently
+        hoverCache.clear();
+        // the templates know which names are tags and which are placeholders
+        templateCache.clear();
+    }
+
+    /**
+     * Get the version of the registered tags, changed by each registration.
+     * The caches of parsed messages must be cleared when it changes, a message may contain a tag
+     * that is now resolved differently
+     *
+     * @return The version of the tags
+     */
+    static int getTagsVersion() {
+        return tagsVersion;
+    }
+
+    /**
+     * Find the resolver of a custom tag
+     *
+     * @param input Char sequence containing the tag name
+     * @param start Index of the first char of the name
+     * @param end   Index after the last char of the name
+     * @return The resolver or null if no tag is registered with this name
+     */
+    @Nullable
+    static TagResolver getTagResolver( @NotNull CharSequence input, int start, int end ) {
+        return resolvers.get( input, start, end );
+    }
+
+    /**
+     * Find the resolver of a custom tag
+     *
+     * @param name Name of the tag
+     * @return The resolver or null if no tag is registered with this name
+     */
+    @Nullable
+    static TagResolver getTagResolver( @NotNull String name ) {
+        return resolvers.get( name, 0, name.length() );
+    }
 
     @NotNull
     public static String escapeTokens( @NotNull String richMessage ) {
-        StringBuilder sb = new StringBuilder();
-        Matcher matcher = pattern.matcher( richMessage );
-        int lastEnd = 0;
-        while ( matcher.find() ) {
-            int startIndex = matcher.start();
-            int endIndex = matcher.end();
+        if ( !mayContainTokens( richMessage ) ) {
+            return richMessage;
+        }
+        StringBuilder sb = new StringBuilder( richMessage.length() + 16 );
+        escapeTokens( richMessage, 0, richMessage.length(), sb );
+        // escaping only adds chars, same length means there was no tag
+        return sb.length() == richMessage.length() ? richMessage : sb.toString();
+    }
+
+    /**
+     * Escape the tags of a region of the message, without copying the region
+     *
+     * @param richMessage Message containing the region
+     * @param start       Index of the first char of the region
+     * @param end         Index after the last char of the region
+     * @param out         Receiver of the escaped region
+     */
+    public static void escapeTokens( @NotNull CharSequence richMessage, int start, int end, @NotNull StringBuilder out ) {
+        TagScanner scanner = new TagScanner( richMessage, start, end );
+        int lastEnd = start;
+        while ( scanner.find() ) {
+            int startIndex = scanner.start();
+            int endIndex = scanner.end();
 
             if ( startIndex > lastEnd ) {
-                sb.append( richMessage, lastEnd, startIndex );
+                out.append( richMessage, lastEnd, startIndex );
             }
             lastEnd = endIndex;
 
-            String start = matcher.group( "start" );
-            String token = matcher.group( "token" );
-            String inner = matcher.group( "inner" );
-            String end = matcher.group( "end" );
-
-            // also escape inner
-            if ( inner != null ) {
-                token = token.replace( inner, escapeTokens( inner ) );
+            out.append( "\\<" );
+            if ( scanner.innerStart() >= 0 ) {
+                // also escape inner
+                out.append( richMessage, scanner.tokenStart(), scanner.innerStart() );
+                escapeTokens( richMessage, scanner.innerStart(), scanner.innerEnd(), out );
+                out.append( richMessage, scanner.innerEnd(), scanner.tokenEnd() );
+            } else {
+                out.append( richMessage, scanner.tokenStart(), scanner.tokenEnd() );
             }
-
-            sb.append( "\\" ).append( start ).append( token ).append( "\\" ).append( end );
+            out.append( "\\>" );
         }
 
-        if ( richMessage.length() > lastEnd ) {
-            sb.append( richMessage.substring( lastEnd ) );
+        if ( end > lastEnd ) {
+            out.append( richMessage, lastEnd, end );
         }
-
-        return sb.toString();
     }
 
     @NotNull
     public static String stripTokens( @NotNull String richMessage ) {
-        StringBuilder sb = new StringBuilder();
-        Matcher matcher = pattern.matcher( richMessage );
-        int lastEnd = 0;
-        while ( matcher.find() ) {
-            int startIndex = matcher.start();
-            int endIndex = matcher.end();
+        if ( !mayContainTokens( richMessage ) ) {
+            return richMessage;
+        }
+        StringBuilder sb = new StringBuilder( richMessage.length() );
+        stripTokens( richMessage, 0, richMessage.length(), sb );
+        // stripping only removes chars, same length means there was no tag
+        return sb.length() == richMessage.length() ? richMessage : sb.toString();
+    }
+
+    /**
+     * Strip the tags of a region of the message, without copying the region
+     *
+     * @param richMessage Message containing the region
+     * @param start       Index of the first char of the region
+     * @param end         Index after the last char of the region
+     * @param out         Receiver of the stripped region
+     */
+    public static void stripTokens( @NotNull CharSequence richMessage, int start, int end, @NotNull StringBuilder out ) {
+        TagScanner scanner = new TagScanner( richMessage, start, end );
+        int lastEnd = start;
+        while ( scanner.find() ) {
+            int startIndex = scanner.start();
+            int endIndex = scanner.end();
 
             if ( startIndex > lastEnd ) {
-                sb.append( richMessage, lastEnd, startIndex );
+                out.append( richMessage, lastEnd, startIndex );
             }
             lastEnd = endIndex;
         }
 
-        if ( richMessage.length() > lastEnd ) {
-            sb.append( richMessage.substring( lastEnd ) );
+        if ( end > lastEnd ) {
+            out.append( richMessage, lastEnd, end );
         }
+    }
 
-        return sb.toString();
+    /**
+     * Check if a tag can be present, a tag needs a {@code <} followed by a {@code >}
+     *
+     * @param richMessage Message to check
+     * @return False if the message can't contain any tag
+     */
+    private static boolean mayContainTokens( @NotNull String richMessage ) {
+        int open = richMessage.indexOf( '<' );
+        return open >= 0 && richMessage.indexOf( '>', open + 1 ) >= 0;
     }
 
     @NotNull
@@ -107,18 +248,73 @@ public class ComponentParser {
             throw new RuntimeException(
                     "Invalid number placeholders defined, usage: parseFormat(format, key, value, key, value...)" );
         }
-        for ( int i = 0; i < placeholders.length; i += 2 ) {
-            richMessage = richMessage.replace( "<" + placeholders[i] + ">", placeholders[i + 1] );
+        if ( placeholders.length == 0 || richMessage.indexOf( '<' ) < 0 ) {
+            return richMessage;
+        }
+        TagTable<String> values = new TagTable<>( false );
+        int valuesLength = 0;
+        for ( int i = placeholders.length - 2; i >= 0; i -= 2 ) {
+            // the first value defined for a key is used
+            values.put( placeholders[i], placeholders[i + 1] );
+            valuesLength += placeholders[i + 1].length();
         }
-        return richMessage;
+        return substitute( richMessage, values, valuesLength );
     }
 
     @NotNull
     public static String handlePlaceholders( @NotNull String richMessage, @NotNull Map<String, String> placeholders ) {
+        if ( placeholders.isEmpty() || richMessage.indexOf( '<' ) < 0 ) {
+            return richMessage;
+        }
+        TagTable<String> values = new TagTable<>( false );
+        int valuesLength = 0;
         for ( Map.Entry<String, String> entry : placeholders.entrySet() ) {
-            richMessage = richMessage.replace( "<" + entry.getKey() + ">", entry.getValue() );
+            values.put( entry.getKey(), entry.getValue() );
+            valuesLength += entry.getValue().length();
         }
-        return richMessage;
+        return substitute( richMessage, values, valuesLength );
+    }
+
+    /**
+     * Replace the placeholders in a single pass, the values inserted are not scanned again
+     *
+     * @param richMessage  Message containing the placeholders
+     * @param values       Values by placeholder name
+     * @param valuesLength Total length of the values, used for sizing the buffer
+     * @return The message with the placeholders replaced
+     */
+    @NotNull
+    private static String substitute( @NotNull String richMessage, @NotNull TagTable<String> values, int valuesLength ) {
+        StringBuilder sb = null;
+        int length = richMessage.length();
+        int lastEnd = 0;
+        int start = richMessage.indexOf( '<' );
+        while ( start >= 0 ) {
+            int end = start + 1;
+            while ( end < length && richMessage.charAt( end ) != '<' && richMessage.charAt( end ) != '>' ) {
+                end++;
+            }
+            if ( end == length ) {
+                break;
+            }
+            if ( richMessage.charAt( end ) == '>' ) {
+                String value = values.get( richMessage, start + 1, end );
+                if ( value != null ) {
+                    if ( sb == null ) {
+                        sb = new StringBuilder( length + valuesLength );
+                    }
+                    sb.append( richMessage, lastEnd, start ).append( value );
+                    lastEnd = end + 1;
+                }
+                start = richMessage.indexOf( '<', end + 1 );
+            } else {
+                start = end;
+            }
+        }
+        if ( sb == null ) {
+            return richMessage;
+        }
+        return sb.append( richMessage, lastEnd, length ).toString();
     }
 
     @NotNull
@@ -131,208 +327,339 @@ public class ComponentParser {
         return parseFormat( handlePlaceholders( richMessage, placeholders ) );
     }
 
+    /**
+     * Parse the message with placeholders computed for the viewer, see {@link MessageTemplate#render(Player, Placeholders)}.
+     * <p>
+     * Contrary to {@link #parseFormat(String, String...)} and {@link #parseFormat(String, Map)}, the placeholder
+     * values are inserted as plain text, the tags they may contain are not parsed. A value computed
+     * from a player name or a chat message can't change the formatting of the message.
+     * The message is compiled once into a {@link MessageTemplate} kept in a cache of the most recently used messages
+     *
+     * @param richMessage  Message to parse
+     * @param viewer       Player who will receive the message
+     * @param placeholders Registry of the placeholders resolvers
+     * @return The components parsed
+     */
     @NotNull
-    public static BaseComponent[] parseFormat( @NotNull String richMessage ) {
-        ComponentBuilder builder = null;
-
-        Stack<ClickEvent> clickEvents = new Stack<>();
-        Stack<HoverEvent> hoverEvents = new Stack<>();
-        Stack<ChatColor> colors = new Stack<>();
-        EnumSet<TextDecoration> decorations = EnumSet.noneOf( TextDecoration.class );
-
-        Matcher matcher = pattern.matcher( richMessage );
-        int lastEnd = 0;
-        while ( matcher.find() ) {
-            int startIndex = matcher.start();
-            int endIndex = matcher.end();
-
-            String msg = null;
-            if ( startIndex > lastEnd ) {
-                msg = richMessage.substring( lastEnd, startIndex );
-            }
-            lastEnd = endIndex;
+    public static BaseComponent[] parseFormat( @NotNull String richMessage, @Nullable Player viewer, @NotNull Placeholders placeholders ) {
+        MessageTemplate template = templateCache.get( richMessage );
+        // a template compiled before a tag registration is compiled again
+        if ( template == null || template.getTagsVersion() != tagsVersion ) {
+            template = MessageTemplate.compile( richMessage );
+            templateCache.put( richMessage, template );
+        }
+        return template.render( viewer, placeholders );
+    }
 
-            // handle component
-            if ( msg != null && msg.length() != 0 ) {
-                // append component
-                if ( builder == null ) {
-                    builder = new ComponentBuilder( msg );
-                } else {
-                    builder.append( msg, ComponentBuilder.FormatRetention.NONE );
-                }
+    @NotNull
+    public static BaseComponent[] parseFormat( @NotNull String richMessage ) {
+        ComponentCollector collector = new ComponentCollector();
+        new FormatParser( collector, null ).parse( richMessage );
+        return collector.create();
+    }
 
-                // set everything that is not closed yet
-                if ( clickEvents.size() > 0 ) {
-                    builder.event( clickEvents.peek() );
-                }
-                if ( hoverEvents.size() > 0 ) {
-                    builder.event( hoverEvents.peek() );
-                }
-                if ( colors.size() > 0 ) {
-                    builder.color( colors.peek() );
-                }
-                if ( decorations.size() > 0 ) {
-                    // no lambda because builder isn't effective final :/
-                    for ( TextDecoration decor : decorations ) {
-                        decor.apply( builder );
-                    }
+    /**
+     * Parse a long message page by page, like the pages of a book or the lines of a lore.
+     * The message is read in chunks and only the current page is kept in memory. The tags opened
+     * in a page stay active in the next pages until they are closed, but a tag can't be split
+     * across two pages.
+     * The text after the last delimiter is parsed as a last page if it isn't empty
+     *
+     * @param reader    Source of the message, not closed
+     * @param delimiter Char separating the pages, removed from the text
+     * @param consumer  Receiver of the components of each page, in order
+     * @throws IOException If the message can't be read
+     */
+    public static void parseStream( @NotNull Reader reader, char delimiter, @NotNull Consumer<BaseComponent[]> consumer ) throws IOException {
+        ComponentCollector collector = new ComponentCollector();
+        FormatParser parser = new FormatParser( collector, null );
+        StringBuilder page = new StringBuilder();
+        char[] buffer = new char[1024];
+        int read;
+        while ( ( read = reader.read( buffer ) ) >= 0 ) {
+            int last = 0;
+            for ( int i = 0; i < read; i++ ) {
+                if ( buffer[i] == delimiter ) {
+                    page.append( buffer, last, i - last );
+                    parsePage( parser, collector, page, delimiter, consumer );
+                    last = i + 1;
                 }
             }
+            page.append( buffer, last, read - last );
+        }
+        if ( page.length() > 0 ) {
+            parsePage( parser, collector, page, delimiter, consumer );
+        }
+    }
 
-//            String group = matcher.group();
-//            String start = matcher.group("start");
-            String token = matcher.group( "token" );
-            String inner = matcher.group( "inner" );
-//            String end = matcher.group("end");
+    /**
+     * Parse a long message page by page, see {@link #parseStream(Reader, char, Consumer)}
+     *
+     * @param richMessage Message to parse
+     * @param delimiter   Char separating the pages, removed from the text
+     * @param consumer    Receiver of the components of each page, in order
+     */
+    public static void parseStream( @NotNull CharSequence richMessage, char delimiter, @NotNull Consumer<BaseComponent[]> consumer ) {
+        ComponentCollector collector = new ComponentCollector();
+        FormatParser parser = new FormatParser( collector, null );
+        StringBuilder page = new StringBuilder();
+        int length = richMessage.length();
+        int last = 0;
+        for ( int i = 0; i < length; i++ ) {
+            if ( richMessage.charAt( i ) == delimiter ) {
+                page.append( richMessage, last, i );
+                parsePage( parser, collector, page, delimiter, consumer );
+                last = i + 1;
+            }
+        }
+        if ( length > last ) {
+            page.append( richMessage, last, length );
+            parsePage( parser, collector, page, delimiter, consumer );
+        }
+    }
 
-            Optional<TextDecoration> deco;
-            Optional<ChatColor> color;
+    /**
+     * Parse a long message line by line, the line separator can be {@code \n} or {@code \r\n}
+     *
+     * @param reader   Source of the message, not closed
+     * @param consumer Receiver of the components of each line, in order
+     * @throws IOException If the message can't be read
+     */
+    public static void parseLines( @NotNull Reader reader, @NotNull Consumer<BaseComponent[]> consumer ) throws IOException {
+        parseStream( reader, '\n', consumer );
+    }
 
-            // click
-            if ( token.startsWith( "click:" ) ) {
-                clickEvents.push( handleClick( token, inner ) );
-            } else if ( token.equals( "/click" ) ) {
-                clickEvents.pop();
-            }
-            // hover
-            else if ( token.startsWith( "hover:" ) ) {
-                hoverEvents.push( handleHover( token, inner ) );
-            } else if ( token.equals( "/hover" ) ) {
-                hoverEvents.pop();
-            }
-            // decoration
-            else if ( ( deco = resolveDecoration( token ) ).isPresent() ) {
-                decorations.add( deco.get() );
-            } else if ( token.startsWith( "/" ) && ( deco = resolveDecoration( token.replace( "/", "" ) ) ).isPresent() ) {
-                decorations.remove( deco.get() );
-            }
-            // color
-            else if ( ( color = resolveColor( token ) ).isPresent() ) {
-                colors.push( color.get() );
-            } else if ( token.startsWith( "/" ) && resolveColor( token.replace( "/", "" ) ).isPresent() ) {
-                colors.pop();
-            }
+    private static void parsePage( @NotNull FormatParser parser, @NotNull ComponentCollector collector, @NotNull StringBuilder page,
+                                   char delimiter, @NotNull Consumer<BaseComponent[]> consumer ) {
+        int length = page.length();
+        if ( delimiter == '\n' && length > 0 && page.charAt( length - 1 ) == '\r' ) {
+            page.setLength( length - 1 );
         }
+        parser.parse( page.toString() );
+        page.setLength( 0 );
+        BaseComponent[] components = collector.create();
+        collector.clear();
+        consumer.accept( components );
+    }
 
-        // handle last component part
-        if ( richMessage.length() > lastEnd ) {
-            String msg = richMessage.substring( lastEnd );
-            // append component
-            if ( builder == null ) {
-                builder = new ComponentBuilder( msg );
-            } else {
-                builder.append( msg, ComponentBuilder.FormatRetention.NONE );
-            }
+    /**
+     * Parse the message directly as chat json, without creating the components.
+     * The json is equivalent to the json of the components returned by {@link #parseFormat(String)}
+     *
+     * @param richMessage Message to parse
+     * @return The json of the message
+     */
+    @NotNull
+    public static String toJson( @NotNull String richMessage ) {
+        JsonWriter writer = new JsonWriter( richMessage.length() * 2 );
+        new FormatParser( writer, null ).parse( richMessage );
+        return writer.create();
+    }
 
-            // set everything that is not closed yet
-            if ( clickEvents.size() > 0 ) {
-                builder.event( clickEvents.peek() );
-            }
-            if ( hoverEvents.size() > 0 ) {
-                builder.event( hoverEvents.peek() );
-            }
-            if ( colors.size() > 0 ) {
-                builder.color( colors.peek() );
-            }
-            if ( decorations.size() > 0 ) {
-                // no lambda because builder isn't effective final :/
-                for ( TextDecoration decor : decorations ) {
-                    decor.apply( builder );
+    @NotNull
+    public static String toJson( @NotNull String richMessage, @NotNull String... placeholders ) {
+        return toJson( handlePlaceholders( richMessage, placeholders ) );
+    }
+
+    @NotNull
+    public static String toJson( @NotNull String richMessage, @NotNull Map<String, String> placeholders ) {
+        return toJson( handlePlaceholders( richMessage, placeholders ) );
+    }
+
+    /**
+     * Merge the consecutive text components having the same formatting, like the two components
+     * produced by {@code <red>a</red><red>b</red>}. The components with extras are kept as they are,
+     * the hover events are compared by identity.
+     * Templates compiled with {@link MessageTemplate#compile(String, boolean)} are merged while rendered
+     *
+     * @param components Components to merge, they are not modified
+     * @return The merged components, the same array if nothing could be merged
+     */
+    @NotNull
+    public static BaseComponent[] coalesce( @NotNull BaseComponent... components ) {
+        List<BaseComponent> merged = new ArrayList<>( components.length );
+        TextComponent copy = null;
+        for ( BaseComponent component : components ) {
+            int last = merged.size() - 1;
+            if ( last >= 0 && sameFormat( merged.get( last ), component ) ) {
+                if ( copy == null ) {
+                    copy = new TextComponent( (TextComponent) merged.get( last ) );
+                    merged.set( last, copy );
                 }
+                copy.setText( copy.getText() + ( (TextComponent) component ).getText() );
+            } else {
+                merged.add( component );
+                copy = null;
             }
         }
-
-        if ( builder == null ) {
-            // lets just return an empty component
-            builder = new ComponentBuilder( "" );
+        if ( merged.size() == components.length ) {
+            return components;
         }
+        return merged.toArray( new BaseComponent[0] );
+    }
 
-        return builder.create();
+    private static boolean sameFormat( @NotNull BaseComponent c1, @NotNull BaseComponent c2 ) {
+        if ( c1.getClass() != TextComponent.class || c2.getClass() != TextComponent.class ) {
+            return false;
+        }
+        if ( ( c1.getExtra() != null && !c1.getExtra().isEmpty() ) || ( c2.getExtra() != null && !c2.getExtra().isEmpty() ) ) {
+            return false;
+        }
+        ClickEvent click1 = c1.getClickEvent();
+        ClickEvent click2 = c2.getClickEvent();
+        return c1.getColorRaw() == c2.getColorRaw()
+                && Objects.equals( c1.isBoldRaw(), c2.isBoldRaw() )
+                && Objects.equals( c1.isItalicRaw(), c2.isItalicRaw() )
+                && Objects.equals( c1.isUnderlinedRaw(), c2.isUnderlinedRaw() )
+                && Objects.equals( c1.isStrikethroughRaw(), c2.isStrikethroughRaw() )
+                && Objects.equals( c1.isObfuscatedRaw(), c2.isObfuscatedRaw() )
+                && Objects.equals( c1.getInsertion(), c2.getInsertion() )
+                && c1.getHoverEvent() == c2.getHoverEvent()
+                && ( click1 == click2 || ( click1 != null && click2 != null
+                && click1.getAction() == click2.getAction() && click1.getValue().equals( click2.getValue() ) ) );
     }
 
+    /**
+     * Parse a click tag
+     *
+     * @param token Content of the tag
+     * @param value Value of the tag, see {@link #tagValue(String, String)}
+     * @return A new click event
+     */
     @NotNull
-    private static ClickEvent handleClick( @NotNull String token, @NotNull String inner ) {
+    static ClickEvent handleClick( @NotNull String token, @NotNull String value ) {
         String[] args = token.split( ":" );
-        ClickEvent clickEvent;
         if ( args.length < 2 ) {
             throw new RuntimeException( "Can't parse click action (too few args) " + token );
         }
         switch ( args[1] ) {
             case "run_command":
-                clickEvent = new ClickEvent( ClickEvent.Action.RUN_COMMAND, token.replace( "click:run_command:", "" ) );
-                break;
+                return new ClickEvent( ClickEvent.Action.RUN_COMMAND, value );
             case "suggest_command":
-                clickEvent = new ClickEvent( ClickEvent.Action.SUGGEST_COMMAND, token.replace( "click:suggest_command:", "" ) );
-                break;
+                return new ClickEvent( ClickEvent.Action.SUGGEST_COMMAND, value );
             case "open_url":
-                clickEvent = new ClickEvent( ClickEvent.Action.OPEN_URL, token.replace( "click:open_url:", "" ) );
-                break;
+                return new ClickEvent( ClickEvent.Action.OPEN_URL, value );
             case "change_page":
-                clickEvent = new ClickEvent( ClickEvent.Action.CHANGE_PAGE, token.replace( "click:change_page:", "" ) );
-                break;
+                return new ClickEvent( ClickEvent.Action.CHANGE_PAGE, value );
             default:
                 throw new RuntimeException( "Can't parse click action (invalid type " + args[1] + ") " + token );
         }
-        return clickEvent;
+    }
+
+    /**
+     * Get the value of a click or hover tag, after its action. The quotes around the value
+     * are removed, so {@code <click:run_command:"/spawn">} and {@code <hover:show_text:"text">}
+     * give the same value as their unquoted form
+     *
+     * @param token Content of the tag
+     * @param inner Quoted value found by the {@link TagScanner}, null if there is none
+     * @return The value of the tag
+     */
+    @NotNull
+    static String tagValue( @NotNull String token, @Nullable String inner ) {
+        if ( inner != null ) {
+            return inner;
+        }
+        int colon = token.indexOf( ':' );
+        colon = colon < 0 ? -1 : token.indexOf( ':', colon + 1 );
+        if ( colon < 0 ) {
+            return "";
+        }
+        String value = token.substring( colon + 1 );
+        if ( value.length() >= 2 && value.charAt( 0 ) == '"' && value.charAt( value.length() - 1 ) == '"' ) {
+            return value.substring( 1, value.length() - 1 );
+        }
+        return value;
+    }
+
+    /**
+     * Parse a hover tag, the hover texts are parsed once and copied in the new events
+     * unless they contain custom tags
+     *
+     * @param token Content of the tag
+     * @param inner Hover text, see {@link #tagValue(String, String)}
+     * @return A new hover event
+     */
+    @NotNull
+    static HoverEvent handleHover( @NotNull String token, @NotNull String inner ) {
+        return handleHover( token, inner, null );
+    }
+
+    /**
+     * Parse a hover tag of a message
+     *
+     * @param token  Content of the tag
+     * @param inner  Hover text, see {@link #tagValue(String, String)}
+     * @param parser Parser of the message, told if the hover text contains custom tags
+     * @return A new hover event
+     */
+    @NotNull
+    static HoverEvent handleHover( @NotNull String token, @NotNull String inner, @Nullable FormatParser parser ) {
+        HoverEvent.Action action = hoverAction( token );
+        String key = token + '\0' + inner;
+        BaseComponent[] components = hoverCache.get( key );
+        if ( components != null ) {
+            return new HoverEvent( action, duplicate( components ) );
+        }
+        ComponentCollector collector = new ComponentCollector();
+        FormatParser hoverParser = new FormatParser( collector, null );
+        hoverParser.parse( inner );
+        components = collector.create();
+        // the custom tags are resolved again at each parse
+        if ( !hoverParser.hasTags() ) {
+            // the cached components are never given, the event gets a copy
+            hoverCache.put( key, components );
+            return new HoverEvent( action, duplicate( components ) );
+        }
+        if ( parser != null ) {
+            parser.tagged();
+        }
+        return new HoverEvent( action, components );
+    }
+
+    @NotNull
+    private static BaseComponent[] duplicate( @NotNull BaseComponent[] components ) {
+        BaseComponent[] copy = new BaseComponent[components.length];
+        for ( int i = 0; i < components.length; i++ ) {
+            copy[i] = components[i].duplicate();
+        }
+        return copy;
     }
 
     @NotNull
-    private static HoverEvent handleHover( @NotNull String token, @NotNull String inner ) {
+    static HoverEvent.Action hoverAction( @NotNull String token ) {
         String[] args = token.split( ":" );
-        HoverEvent hoverEvent;
         if ( args.length < 2 ) {
             throw new RuntimeException( "Can't parse hover action (too few args) " + token );
         }
         switch ( args[1] ) {
             case "show_text":
-                hoverEvent = new HoverEvent( HoverEvent.Action.SHOW_TEXT, parseFormat( inner ) );
-                break;
+                return HoverEvent.Action.SHOW_TEXT;
             case "show_item":
-                hoverEvent = new HoverEvent( HoverEvent.Action.SHOW_ITEM, parseFormat( inner ) );
-                break;
+                return HoverEvent.Action.SHOW_ITEM;
             case "show_entity":
-                hoverEvent = new HoverEvent( HoverEvent.Action.SHOW_ENTITY, parseFormat( inner ) );
-                break;
+                return HoverEvent.Action.SHOW_ENTITY;
             default:
                 throw new RuntimeException( "Can't parse hover action (invalid type " + args[1] + ") " + token );
         }
-        return hoverEvent;
-    }
-
-    @NotNull
-    private static Optional<ChatColor> resolveColor( @NotNull String token ) {
-        try {
-            return Optional.of( ChatColor.valueOf( token.toUpperCase() ) );
-        } catch ( IllegalArgumentException ex ) {
-            return Optional.empty();
-        }
-    }
-
-    @NotNull
-    private static Optional<TextDecoration> resolveDecoration( @NotNull String token ) {
-        try {
-            return Optional.of( TextDecoration.valueOf( token.toUpperCase() ) );
-        } catch ( IllegalArgumentException ex ) {
-            return Optional.empty();
-        }
     }
 
     enum TextDecoration {
 
-        BOLD( builder -> builder.bold( true ) ),
-        ITALIC( builder -> builder.italic( true ) ),
-        UNDERLINED( builder -> builder.underlined( true ) ),
-        STRIKETHROUGH( builder -> builder.strikethrough( true ) ),
-        OBFUSCATED( builder -> builder.obfuscated( true ) );
+        BOLD( component -> component.setBold( true ) ),
+        ITALIC( component -> component.setItalic( true ) ),
+        UNDERLINED( component -> component.setUnderlined( true ) ),
+        STRIKETHROUGH( component -> component.setStrikethrough( true ) ),
+        OBFUSCATED( component -> component.setObfuscated( true ) );
 
-        private Consumer<ComponentBuilder> builder;
+        private Consumer<BaseComponent> decorator;
 
-        TextDecoration( Consumer<ComponentBuilder> builder ) {
-            this.builder = builder;
+        TextDecoration( Consumer<BaseComponent> decorator ) {
+            this.decorator = decorator;
         }
 
-        public void apply( ComponentBuilder comp ) {
-            builder.accept( comp );
+        public void apply( BaseComponent comp ) {
+            decorator.accept( comp );
         }
 
     }
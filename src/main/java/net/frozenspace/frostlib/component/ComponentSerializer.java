@@ -27,17 +27,45 @@ import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.HoverEvent;
+import net.md_5.bungee.api.chat.TextComponent;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
 /**
  * @author MiniDigger (https://www.spigotmc.org/members/minidigger.6039)
  */
 public class ComponentSerializer {
 
+    private static final String[] COLORS = names( ChatColor.values() );
+    private static final String[] CLICK_ACTIONS = names( ClickEvent.Action.values() );
+    private static final String[] HOVER_ACTIONS = names( HoverEvent.Action.values() );
+
     @NotNull
     public static String serialize( @NotNull BaseComponent... components ) {
         StringBuilder sb = new StringBuilder();
+        try {
+            serialize( sb, components );
+        } catch ( IOException e ) {
+            // a StringBuilder never throws
+            throw new UncheckedIOException( e );
+        }
+        return sb.toString();
+    }
 
+    /**
+     * Serialize the components directly in the appendable, the hover values are
+     * serialized in place without creating intermediate strings
+     *
+     * @param out        Destination of the rich message
+     * @param components Components to serialize
+     * @throws IOException If the appendable can't be written
+     */
+    public static void serialize( @NotNull Appendable out, @NotNull BaseComponent... components ) throws IOException {
         for ( int i = 0; i < components.length; i++ ) {
             BaseComponent comp = components[i];
 
@@ -50,47 +78,52 @@ public class ComponentSerializer {
             }
 
             // ## color
-            // ### white is not important
-            if ( !ChatColor.WHITE.equals( comp.getColor() ) ) {
-                sb.append( startColor( comp.getColor() ) );
+            // ### white is not important, only start if prevComp didn't start the same one
+            if ( !ChatColor.WHITE.equals( comp.getColor() ) && ( prevComp == null || prevComp.getColor() != comp.getColor() ) ) {
+                startTag( out, COLORS[comp.getColor().ordinal()] );
             }
 
             // ## decoration
             // ### only start if prevComp didn't start
             if ( comp.isBold() && ( prevComp == null || !prevComp.isBold() ) ) {
-                sb.append( startTag( "bold" ) );
+                startTag( out, "bold" );
             }
             if ( comp.isItalic() && ( prevComp == null || !prevComp.isItalic() ) ) {
-                sb.append( startTag( "italic" ) );
+                startTag( out, "italic" );
             }
             if ( comp.isObfuscated() && ( prevComp == null || !prevComp.isObfuscated() ) ) {
-                sb.append( startTag( "obfuscated" ) );
+                startTag( out, "obfuscated" );
             }
             if ( comp.isStrikethrough() && ( prevComp == null || !prevComp.isStrikethrough() ) ) {
-                sb.append( startTag( "strikethrough" ) );
+                startTag( out, "strikethrough" );
             }
             if ( comp.isUnderlined() && ( prevComp == null || !prevComp.isUnderlined() ) ) {
-                sb.append( startTag( "underlined" ) );
+                startTag( out, "underlined" );
             }
 
             // ## hover
             // ### only start if prevComp didn't start the same one
             HoverEvent hov = comp.getHoverEvent();
             if ( hov != null && ( prevComp == null || !equals( hov, prevComp.getHoverEvent() ) ) ) {
-                sb.append( startTag(
-                        "hover:" + hov.getAction().name().toLowerCase() + ":\"" + serialize( hov.getValue() ) + "\"" ) );
+                out.append( "<hover:" ).append( HOVER_ACTIONS[hov.getAction().ordinal()] ).append( ":\"" );
+                serialize( out, hov.getValue() );
+                out.append( "\">" );
             }
 
             // ## click
             // ### only start if prevComp didn't start the same one
             ClickEvent click = comp.getClickEvent();
             if ( click != null && ( prevComp == null || !equals( click, prevComp.getClickEvent() ) ) ) {
-                sb.append(
-                        startTag( "click:" + click.getAction().name().toLowerCase() + ":\"" + click.getValue() + "\"" ) );
+                out.append( "<click:" ).append( CLICK_ACTIONS[click.getAction().ordinal()] ).append( ":\"" )
+                        .append( click.getValue() ).append( "\">" );
             }
 
             // # append text
-            sb.append( comp.toPlainText() );
+            if ( comp instanceof TextComponent && comp.getExtra() == null ) {
+                out.append( ( (TextComponent) comp ).getText() );
+            } else {
+                out.append( comp.toPlainText() );
+            }
 
             // # end tags
 
@@ -101,30 +134,29 @@ public class ComponentSerializer {
             }
 
             // ## color
-            // ### only end color if next comp is white and curren't isn't
-            if ( nextComp != null && comp.getColor() != ChatColor.WHITE ) {
-                if ( nextComp.getColor() == ChatColor.WHITE || nextComp.getColor() == null ) {
-                    sb.append( endColor( comp.getColor() ) );
-                }
+            // ### only end color if next comp has another color and curren't isn't white,
+            // ### so the color under it is restored
+            if ( nextComp != null && comp.getColor() != ChatColor.WHITE && nextComp.getColor() != comp.getColor() ) {
+                endTag( out, COLORS[comp.getColor().ordinal()] );
             }
 
             // ## decoration
             // ### only end decoration if next tag is different
             if ( nextComp != null ) {
                 if ( comp.isBold() && !nextComp.isBold() ) {
-                    sb.append( endTag( "bold" ) );
+                    endTag( out, "bold" );
                 }
                 if ( comp.isItalic() && !nextComp.isItalic() ) {
-                    sb.append( endTag( "italic" ) );
+                    endTag( out, "italic" );
                 }
                 if ( comp.isObfuscated() && !nextComp.isObfuscated() ) {
-                    sb.append( endTag( "obfuscated" ) );
+                    endTag( out, "obfuscated" );
                 }
                 if ( comp.isStrikethrough() && !nextComp.isStrikethrough() ) {
-                    sb.append( endTag( "strikethrough" ) );
+                    endTag( out, "strikethrough" );
                 }
                 if ( comp.isUnderlined() && !nextComp.isUnderlined() ) {
-                    sb.append( endTag( "underlined" ) );
+                    endTag( out, "underlined" );
                 }
             }
 
@@ -132,7 +164,7 @@ public class ComponentSerializer {
             // ### only end hover if next tag is different
             if ( nextComp != null && comp.getHoverEvent() != null ) {
                 if ( !equals( comp.getHoverEvent(), nextComp.getHoverEvent() ) ) {
-                    sb.append( endTag( "hover" ) );
+                    endTag( out, "hover" );
                 }
             }
 
@@ -140,37 +172,78 @@ public class ComponentSerializer {
             // ### only end click if next tag is different
             if ( nextComp != null && comp.getClickEvent() != null ) {
                 if ( !equals( comp.getClickEvent(), nextComp.getClickEvent() ) ) {
-                    sb.append( endTag( "click" ) );
+                    endTag( out, "click" );
                 }
             }
         }
-
-        return sb.toString();
     }
 
     private static boolean equals( ClickEvent c1, ClickEvent c2 ) {
+        // the components under the same tag share its event
+        if ( c1 == c2 ) return c1 != null;
         if ( c2 == null || c1 == null ) return false;
         return c1.equals( c2 ) || ( c1.getAction().equals( c2.getAction() ) && c1.getValue().equals( c2.getValue() ) );
     }
 
     private static boolean equals( HoverEvent h1, HoverEvent h2 ) {
+        // the components under the same tag share its event
+        if ( h1 == h2 ) return h1 != null;
         if ( h2 == null || h1 == null ) return false;
-        return h1.equals( h2 ) || ( h1.getAction().equals( h2.getAction() ) );
+        return h1.getAction().equals( h2.getAction() ) && equals( h1.getValue(), h2.getValue() );
     }
 
-    private static String startColor( ChatColor color ) {
-        return startTag( color.name().toLowerCase() );
+    private static boolean equals( BaseComponent[] c1, BaseComponent[] c2 ) {
+        if ( c1 == c2 ) return true;
+        if ( c2 == null || c1 == null || c1.length != c2.length ) return false;
+        for ( int i = 0; i < c1.length; i++ ) {
+            if ( !equals( c1[i], c2[i] ) ) return false;
+        }
+        return true;
+    }
+
+    private static boolean equals( List<BaseComponent> c1, List<BaseComponent> c2 ) {
+        if ( c1 == c2 ) return true;
+        if ( c2 == null || c1 == null || c1.size() != c2.size() ) return false;
+        for ( int i = 0; i < c1.size(); i++ ) {
+            if ( !equals( c1.get( i ), c2.get( i ) ) ) return false;
+        }
+        return true;
     }
 
-    private static String endColor( ChatColor color ) {
-        return endTag( color.name().toLowerCase() );
+    private static boolean equals( BaseComponent c1, BaseComponent c2 ) {
+        if ( c1 == c2 ) return true;
+        if ( c1.getClass() != c2.getClass() ) return false;
+        if ( c1 instanceof TextComponent ) {
+            if ( !( (TextComponent) c1 ).getText().equals( ( (TextComponent) c2 ).getText() ) ) return false;
+        } else if ( !c1.toPlainText().equals( c2.toPlainText() ) ) {
+            // other component types are rare, compare their text
+            return false;
+        }
+        return c1.getColorRaw() == c2.getColorRaw()
+                && Objects.equals( c1.isBoldRaw(), c2.isBoldRaw() )
+                && Objects.equals( c1.isItalicRaw(), c2.isItalicRaw() )
+                && Objects.equals( c1.isUnderlinedRaw(), c2.isUnderlinedRaw() )
+                && Objects.equals( c1.isStrikethroughRaw(), c2.isStrikethroughRaw() )
+                && Objects.equals( c1.isObfuscatedRaw(), c2.isObfuscatedRaw() )
+                && Objects.equals( c1.getInsertion(), c2.getInsertion() )
+                && ( c1.getClickEvent() == null ? c2.getClickEvent() == null : equals( c1.getClickEvent(), c2.getClickEvent() ) )
+                && ( c1.getHoverEvent() == null ? c2.getHoverEvent() == null : equals( c1.getHoverEvent(), c2.getHoverEvent() ) )
+                && equals( c1.getExtra(), c2.getExtra() );
+    }
+
+    private static String[] names( Enum<?>[] values ) {
+        String[] names = new String[values.length];
+        for ( Enum<?> value : values ) {
+            names[value.ordinal()] = value.name().toLowerCase( Locale.ROOT );
+        }
+        return names;
     }
 
-    private static String startTag( String content ) {
-        return String.format( "<%s>", content );
+    private static void startTag( Appendable out, String content ) throws IOException {
+        out.append( '<' ).append( content ).append( '>' );
     }
 
-    private static String endTag( String content ) {
-        return String.format( "</%s>", content );
+    private static void endTag( Appendable out, String content ) throws IOException {
+        out.append( "</" ).append( content ).append( '>' );
     }
 }
@@ -0,0 +1,229 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.frozenspace.frostlib.component.ComponentParser.TextDecoration;
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.HoverEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Stack;
+
+/**
+ * Parse a rich message and report every text part with the {@link Style}
+ * active at this position. This is the engine shared by {@link ComponentParser#parseFormat(String)}
+ * and {@link MessageTemplate#compile(String)}
+ *
+ * @author Frozen
+ */
+final class FormatParser {
+
+    /**
+     * Receive the text parts found by the parser
+     */
+    interface Sink {
+
+        /**
+         * Called for each text part between two tags
+         *
+         * @param style Style active for this text
+         * @param text  The text, never empty
+         */
+        void text( @NotNull Style style, @NotNull CharSequence text );
+
+        /**
+         * Called for each custom tag, the resolver is found by name when the tag is written
+         * so a template uses the resolver registered at the time of the render
+         *
+         * @param name     Name of the tag
+         * @param argument Argument of the tag or null if it has none
+         */
+        void tag( @NotNull String name, @Nullable String argument );
+
+    }
+
+    private final Sink sink;
+    private final MessageTemplate.Compiler compiler;
+
+    private final Stack<ClickEvent> clickEvents = new Stack<>();
+    private final Stack<HoverEvent> hoverEvents = new Stack<>();
+    private final Stack<ChatColor> colors = new Stack<>();
+    private final EnumSet<TextDecoration> decorations = EnumSet.noneOf( TextDecoration.class );
+
+    private Map<HoverEvent, MessageTemplate> hoverTemplates;
+    private Style style = Style.EMPTY;
+    private boolean changed = false;
+    private boolean tags = false;
+
+    /**
+     * Default constructor
+     *
+     * @param sink     Receiver of the text parts
+     * @param compiler Compiler of the template being parsed, null when parsing a plain message
+     */
+    FormatParser( @NotNull Sink sink, @Nullable MessageTemplate.Compiler compiler ) {
+        this.sink = sink;
+        this.compiler = compiler;
+    }
+
+    /**
+     * Parse the message, the state of the opened tags is kept between calls
+     *
+     * @param richMessage Message to parse
+     */
+    void parse( @NotNull String richMessage ) {
+        TagScanner scanner = new TagScanner( richMessage );
+        int lastEnd = 0;
+        while ( scanner.find() ) {
+            int startIndex = scanner.start();
+            if ( startIndex > lastEnd ) {
+                sink.text( style(), richMessage.substring( lastEnd, startIndex ) );
+            }
+            lastEnd = scanner.end();
+            handleTag( richMessage, scanner );
+        }
+
+        // handle last component part
+        if ( richMessage.length() > lastEnd ) {
+            sink.text( style(), richMessage.substring( lastEnd ) );
+        }
+    }
+
+    private void handleTag( @NotNull String richMessage, @NotNull TagScanner scanner ) {
+        int start = scanner.tokenStart();
+        int end = scanner.tokenEnd();
+        Tag tag = Tag.get( richMessage, start, end );
+
+        // decoration
+        if ( tag != null && tag.decoration != null ) {
+            if ( tag.closing ) {
+                decorations.remove( tag.decoration );
+            } else {
+                decorations.add( tag.decoration );
+            }
+        }
+        // color
+        else if ( tag != null ) {
+            if ( tag.closing ) {
+                colors.pop();
+            } else {
+                colors.push( tag.color );
+            }
+        }
+        // click
+        else if ( richMessage.startsWith( "click:", start ) ) {
+            String token = scanner.token();
+            clickEvents.push( ComponentParser.handleClick( token, ComponentParser.tagValue( token, scanner.inner() ) ) );
+        } else if ( is( richMessage, start, end, "/click" ) ) {
+            clickEvents.pop();
+        }
+        // hover
+        else if ( richMessage.startsWith( "hover:", start ) ) {
+            String token = scanner.token();
+            hoverEvents.push( handleHover( token, ComponentParser.tagValue( token, scanner.inner() ) ) );
+        } else if ( is( richMessage, start, end, "/hover" ) ) {
+            hoverEvents.pop();
+        }
+        // custom
+        else {
+            int colon = start;
+            while ( colon < end && richMessage.charAt( colon ) != ':' ) {
+                colon++;
+            }
+            // a template keeps the unknown tags too, they may be registered before it is rendered
+            if ( compiler != null ? MessageTemplate.isName( richMessage.substring( start, colon ) )
+                    : ComponentParser.getTagResolver( richMessage, start, colon ) != null ) {
+                sink.tag( richMessage.substring( start, colon ), colon < end ? richMessage.substring( colon + 1, end ) : null );
+                tags = true;
+            }
+            return;
+        }
+        changed = true;
+    }
+
+    private static boolean is( @NotNull String richMessage, int start, int end, @NotNull String token ) {
+        return end - start == token.length() && richMessage.startsWith( token, start );
+    }
+
+    @NotNull
+    private HoverEvent handleHover( @NotNull String token, @NotNull String inner ) {
+        if ( compiler == null ) {
+            return ComponentParser.handleHover( token, inner, this );
+        }
+        MessageTemplate template = compiler.compileNested( inner );
+        if ( !MessageTemplate.hasSlots( inner ) && !template.hasTags() ) {
+            return ComponentParser.handleHover( token, inner );
+        }
+        // the hover text contains placeholders or custom tags, it will be rendered with the message
+        // not shared, the event identifies the template of this hover
+        HoverEvent hoverEvent = new HoverEvent( ComponentParser.hoverAction( token ), ComponentParser.parseFormat( "" ) );
+        if ( hoverTemplates == null ) {
+            hoverTemplates = new IdentityHashMap<>();
+        }
+        hoverTemplates.put( hoverEvent, template );
+        return hoverEvent;
+    }
+
+    /**
+     * Check if a custom tag was found, in the text or in a hover text.
+     * The components of such a message must not be cached, the tags are resolved at each parse
+     *
+     * @return True if a custom tag was found
+     */
+    boolean hasTags() {
+        return tags;
+    }
+
+    /**
+     * Called when a hover text of the message contains a custom tag
+     */
+    void tagged() {
+        tags = true;
+    }
+
+    @NotNull
+    private Style style() {
+        if ( changed ) {
+            int mask = 0;
+            for ( TextDecoration decoration : decorations ) {
+                mask |= 1 << decoration.ordinal();
+            }
+            HoverEvent hover = hoverEvents.isEmpty() ? null : hoverEvents.peek();
+            style = new Style(
+                    colors.isEmpty() ? null : colors.peek(),
+                    mask,
+                    clickEvents.isEmpty() ? null : clickEvents.peek(),
+                    hover,
+                    hover != null && hoverTemplates != null ? hoverTemplates.get( hover ) : null );
+            changed = false;
+        }
+        return style;
+    }
+
+}
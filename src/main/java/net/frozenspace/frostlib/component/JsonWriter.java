@@ -0,0 +1,120 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Write the text parts reported by a {@link FormatParser} or a {@link MessageTemplate}
+ * directly as chat json, without creating the components.
+ * The json is equivalent to the one produced by {@link net.md_5.bungee.chat.ComponentSerializer#toString(BaseComponent...)}
+ * for the components of {@link ComponentParser#parseFormat(String)}
+ *
+ * @author Frozen
+ */
+final class JsonWriter implements FormatParser.Sink {
+
+    private static final String EMPTY = "{\"text\":\"\"}";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final StringBuilder json;
+    private final int start;
+    private int count = 0;
+
+    /**
+     * Default constructor
+     *
+     * @param capacity Expected length of the json
+     */
+    JsonWriter( int capacity ) {
+        this.json = new StringBuilder( capacity + 32 );
+        this.json.append( "{\"extra\":[" );
+        this.start = json.length();
+    }
+
+    @Override
+    public void text( @NotNull Style style, @NotNull CharSequence text ) {
+        separator();
+        json.append( style.json() );
+        escape( text, json );
+        json.append( "\"}" );
+    }
+
+    @Override
+    public void tag( @NotNull String name, @Nullable String argument ) {
+        TagResolver resolver = ComponentParser.getTagResolver( name );
+        BaseComponent[] components = resolver != null ? resolver.resolve( argument ) : null;
+        if ( components != null ) {
+            for ( BaseComponent component : components ) {
+                separator();
+                json.append( net.md_5.bungee.chat.ComponentSerializer.toString( component ) );
+            }
+        }
+    }
+
+    private void separator() {
+        if ( count++ > 0 ) {
+            json.append( ',' );
+        }
+    }
+
+    /**
+     * Create the json of the parts written
+     *
+     * @return The json of a single component, or of an empty component containing all the parts
+     */
+    @NotNull
+    String create() {
+        if ( count == 0 ) {
+            return EMPTY;
+        }
+        if ( count == 1 ) {
+            return json.substring( start );
+        }
+        return json.append( "],\"text\":\"\"}" ).toString();
+    }
+
+    /**
+     * Append the text as the content of a json string
+     *
+     * @param text Text to escape
+     * @param out  Destination of the escaped text
+     */
+    static void escape( @NotNull CharSequence text, @NotNull StringBuilder out ) {
+        int length = text.length();
+        for ( int i = 0; i < length; i++ ) {
+            char c = text.charAt( i );
+            if ( c == '"' || c == '\\' ) {
+                out.append( '\\' ).append( c );
+            } else if ( c < 0x20 ) {
+                out.append( "\\u00" ).append( HEX[c >> 4] ).append( HEX[c & 0xF] );
+            } else {
+                out.append( c );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread safe cache keeping the most recently used entries,
+ * with counters of the hits, misses and evictions
+ * <p>
+ * The entries are split by hash between segments having their own lock, so the threads using
+ * different keys rarely wait for each other. The least recently used entry of a segment is evicted
+ * when this segment is full
+ *
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ * @author Frozen
+ */
+final class LruCache<K, V> {
+
+    private static final int MAXIMUM_SEGMENTS = 16;
+    private static final int MINIMUM_SEGMENT_SIZE = 32;
+
+    private final int maximumSize;
+    private final Segment<K, V>[] segments;
+
+    /**
+     * Default constructor
+     *
+     * @param maximumSize Maximum number of entries kept
+     */
+    @SuppressWarnings( "unchecked" )
+    LruCache( int maximumSize ) {
+        if ( maximumSize <= 0 ) {
+            throw new IllegalArgumentException( "The maximum size of the cache must be positive" );
+        }
+        this.maximumSize = maximumSize;
+        // a power of two, the small caches have a single segment to keep an exact LRU order
+        int count = Integer.highestOneBit( Math.max( 1, Math.min( MAXIMUM_SEGMENTS, maximumSize / MINIMUM_SEGMENT_SIZE ) ) );
+        this.segments = new Segment[count];
+        for ( int i = 0; i < count; i++ ) {
+            // the first segments take the remainder, the sizes add up to the maximum size
+            segments[i] = new Segment<>( maximumSize / count + ( i < maximumSize % count ? 1 : 0 ) );
+        }
+    }
+
+    @NotNull
+    private Segment<K, V> segment( @NotNull K key ) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & ( segments.length - 1 )];
+    }
+
+    /**
+     * Get a value, counting a hit or a miss
+     *
+     * @param key Key of the value
+     * @return The value or null if it isn't cached
+     */
+    @Nullable
+    V get( @NotNull K key ) {
+        return segment( key ).get( key );
+    }
+
+    /**
+     * Put a value, the least recently used entry is evicted if the cache is full
+     *
+     * @param key   Key of the value
+     * @param value Value to cache
+     */
+    void put( @NotNull K key, @NotNull V value ) {
+        segment( key ).put( key, value );
+    }
+
+    /**
+     * @return The number of entries in the cache
+     */
+    int size() {
+        int size = 0;
+        for ( Segment<K, V> segment : segments ) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return The maximum number of entries kept
+     */
+    int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return The number of values found by {@link #get(Object)}
+     */
+    long getHits() {
+        long hits = 0;
+        for ( Segment<K, V> segment : segments ) {
+            hits += segment.getHits();
+        }
+        return hits;
+    }
+
+    /**
+     * @return The number of values not found by {@link #get(Object)}
+     */
+    long getMisses() {
+        long misses = 0;
+        for ( Segment<K, V> segment : segments ) {
+            misses += segment.getMisses();
+        }
+        return misses;
+    }
+
+    /**
+     * @return The number of entries evicted because the cache was full
+     */
+    long getEvictions() {
+        long evictions = 0;
+        for ( Segment<K, V> segment : segments ) {
+            evictions += segment.getEvictions();
+        }
+        return evictions;
+    }
+
+    /**
+     * Remove all the entries, the counters are kept
+     */
+    void clear() {
+        for ( Segment<K, V> segment : segments ) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Part of the cache guarded by its own lock
+     *
+     * @param <K> Type of the keys
+     * @param <V> Type of the values
+     */
+    private static final class Segment<K, V> {
+
+        private final Map<K, V> entries;
+
+        private long hits = 0;
+        private long misses = 0;
+        private long evictions = 0;
+
+        Segment( int maximumSize ) {
+            this.entries = new LinkedHashMap<K, V>( 16, 0.75f, true ) {
+                @Override
+                protected boolean removeEldestEntry( Map.Entry<K, V> eldest ) {
+                    if ( size() > maximumSize ) {
+                        evictions++;
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        @Nullable
+        synchronized V get( @NotNull K key ) {
+            V value = entries.get( key );
+            if ( value != null ) {
+                hits++;
+            } else {
+                misses++;
+            }
+            return value;
+        }
+
+        synchronized void put( @NotNull K key, @NotNull V value ) {
+            entries.put( key, value );
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized long getHits() {
+            return hits;
+        }
+
+        synchronized long getMisses() {
+            return misses;
+        }
+
+        synchronized long getEvictions() {
+            return evictions;
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+    }
+
+}
@@ -0,0 +1,274 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The translations of the messages, one {@link MessageCatalog} per locale.
+ * <p>
+ * The locale of a player is given by {@link Player#getLocale()}, like {@code fr_ca}. A message missing
+ * in this locale is searched in its fallbacks, then in the other locales of the same language,
+ * then in the default locale. The chain of each locale is computed once.
+ * <pre>
+ * MessageBundle bundle = new MessageBundle( "en_us" )
+ *         .add( "en_us", english )
+ *         .add( "fr_fr", french )
+ *         .fallback( "pt_br", "pt_pt" );
+ * bundle.broadcast( Bukkit.getOnlinePlayers(), "arena.start", "arena", arena.getName() );
+ * </pre>
+ *
+ * @author Frozen
+ */
+public final class MessageBundle {
+
+    private final String defaultLocale;
+    private final Map<String, MessageCatalog> catalogs = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> fallbacks = new ConcurrentHashMap<>();
+    private final Map<String, MessageCatalog[]> chains = new ConcurrentHashMap<>();
+    /**
+     * Changed by each modification of the catalogs or the fallbacks, under the lock of the bundle.
+     * Only the chains computed without modification in the meantime are kept
+     */
+    private volatile int version = 0;
+
+    /**
+     * Default constructor
+     *
+     * @param defaultLocale Locale used when a message isn't translated in the locale of a player
+     */
+    public MessageBundle( @NotNull String defaultLocale ) {
+        this.defaultLocale = normalize( defaultLocale );
+    }
+
+    /**
+     * Add or replace the messages of a locale
+     *
+     * @param locale  Locale of the messages, like {@code en_us}
+     * @param catalog Messages of this locale
+     * @return The current instance
+     */
+    @NotNull
+    public synchronized MessageBundle add( @NotNull String locale, @NotNull MessageCatalog catalog ) {
+        catalogs.put( normalize( locale ), catalog );
+        invalidateChains();
+        return this;
+    }
+
+    /**
+     * Compile and add or replace the messages of a locale
+     *
+     * @param locale   Locale of the messages, like {@code en_us}
+     * @param messages Rich messages of this locale by key
+     * @return The current instance
+     * @see MessageCatalog#compile(Map)
+     */
+    @NotNull
+    public MessageBundle add( @NotNull String locale, @NotNull Map<String, String> messages ) {
+        return add( locale, MessageCatalog.compile( messages ) );
+    }
+
+    /**
+     * Define the locales searched, in order, when a message isn't translated in a locale
+     *
+     * @param locale    Locale having fallbacks
+     * @param fallbacks Locales searched before the other locales of the same language and the default locale
+     * @return The current instance
+     */
+    @NotNull
+    public synchronized MessageBundle fallback( @NotNull String locale, @NotNull String... fallbacks ) {
+        List<String> normalized = new ArrayList<>( fallbacks.length );
+        for ( String fallback : fallbacks ) {
+            normalized.add( normalize( fallback ) );
+        }
+        this.fallbacks.put( normalize( locale ), normalized );
+        invalidateChains();
+        return this;
+    }
+
+    /**
+     * Get the messages of a locale, without fallback
+     *
+     * @param locale Locale of the messages
+     * @return The messages or null if the locale isn't translated
+     */
+    @Nullable
+    public MessageCatalog getCatalog( @NotNull String locale ) {
+        return catalogs.get( normalize( locale ) );
+    }
+
+    /**
+     * Get the template of a message for a locale
+     *
+     * @param locale Locale of the viewer
+     * @param key    Key of the message
+     * @return The template of the first locale of the chain defining the message, or null if no locale defines it
+     */
+    @Nullable
+    public MessageTemplate get( @NotNull String locale, @NotNull String key ) {
+        for ( MessageCatalog catalog : chain( locale ) ) {
+            MessageTemplate template = catalog.get( key );
+            if ( template != null ) {
+                return template;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the template of a message for a player
+     *
+     * @param viewer Player who will receive the message, null for the default locale
+     * @param key    Key of the message
+     * @return The template or null if no locale defines the message
+     */
+    @Nullable
+    public MessageTemplate get( @Nullable Player viewer, @NotNull String key ) {
+        return get( viewer != null ? viewer.getLocale() : defaultLocale, key );
+    }
+
+    /**
+     * Render a message for a player
+     *
+     * @param viewer       Player who will receive the message, null for the default locale
+     * @param key          Key of the message
+     * @param placeholders Placeholders values as key, value, key, value...
+     * @return The components rendered
+     * @throws IllegalArgumentException If no locale defines the message
+     */
+    @NotNull
+    public BaseComponent[] render( @Nullable Player viewer, @NotNull String key, @NotNull String... placeholders ) {
+        return require( viewer, key ).render( placeholders );
+    }
+
+    /**
+     * Render a message for a player
+     *
+     * @param viewer       Player who will receive the message, null for the default locale
+     * @param key          Key of the message
+     * @param placeholders Registry of the placeholders resolvers
+     * @return The components rendered
+     * @throws IllegalArgumentException If no locale defines the message
+     */
+    @NotNull
+    public BaseComponent[] render( @Nullable Player viewer, @NotNull String key, @NotNull Placeholders placeholders ) {
+        return require( viewer, key ).render( viewer, placeholders );
+    }
+
+    /**
+     * Send a message to many players, it is rendered once per translation instead of once per player
+     *
+     * @param recipients   Players receiving the message
+     * @param key          Key of the message
+     * @param placeholders Placeholders values as key, value, key, value...
+     * @return The number of distinct renders
+     * @throws IllegalArgumentException If no locale defines the message
+     */
+    public int broadcast( @NotNull Iterable<? extends Player> recipients, @NotNull String key, @NotNull String... placeholders ) {
+        return ComponentBroadcast.send( recipients, viewer -> require( viewer, key ),
+                viewer -> require( viewer, key ).render( placeholders ) );
+    }
+
+    @NotNull
+    private MessageTemplate require( @Nullable Player viewer, @NotNull String key ) {
+        MessageTemplate template = get( viewer, key );
+        if ( template == null ) {
+            throw new IllegalArgumentException( "Unknown message " + key );
+        }
+        return template;
+    }
+
+    /**
+     * Get the catalogs searched for a locale, computed once per locale
+     *
+     * @param locale Locale of the viewer
+     * @return The catalogs in search order
+     */
+    @NotNull
+    private MessageCatalog[] chain( @NotNull String locale ) {
+        MessageCatalog[] chain = chains.get( locale );
+        if ( chain == null ) {
+            int computedVersion = version;
+            chain = createChain( normalize( locale ) );
+            synchronized ( this ) {
+                // a modification during the computation may not be seen by this chain
+                if ( computedVersion == version ) {
+                    chains.put( locale, chain );
+                }
+            }
+        }
+        return chain;
+    }
+
+    /**
+     * Remove the computed chains, must be called under the lock of the bundle
+     */
+    private void invalidateChains() {
+        version++;
+        chains.clear();
+    }
+
+    @NotNull
+    private MessageCatalog[] createChain( @NotNull String locale ) {
+        Map<String, MessageCatalog> chain = new LinkedHashMap<>();
+        addLocale( chain, locale );
+        for ( String fallback : fallbacks.getOrDefault( locale, Collections.emptyList() ) ) {
+            addLocale( chain, fallback );
+        }
+        // the other locales of the same language, fr_ca can use fr_fr
+        int separator = locale.indexOf( '_' );
+        String language = separator < 0 ? locale : locale.substring( 0, separator );
+        addLocale( chain, language );
+        catalogs.keySet().stream()
+                .filter( other -> other.startsWith( language + "_" ) )
+                .sorted()
+                .forEach( other -> addLocale( chain, other ) );
+        addLocale( chain, defaultLocale );
+        return chain.values().toArray( new MessageCatalog[0] );
+    }
+
+    private void addLocale( @NotNull Map<String, MessageCatalog> chain, @NotNull String locale ) {
+        MessageCatalog catalog = catalogs.get( locale );
+        if ( catalog != null ) {
+            chain.putIfAbsent( locale, catalog );
+        }
+    }
+
+    @NotNull
+    private static String normalize( @NotNull String locale ) {
+        return locale.replace( '-', '_' ).toLowerCase( Locale.ROOT );
+    }
+
+}
@@ -0,0 +1,261 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A set of messages compiled once into {@link MessageTemplate}, usually loaded
+ * from a configuration file by the {@link net.frozenspace.frostlib.configuration.ConfigurationLoader}.
+ * <p>
+ * Every message is compiled when the catalog is created, so the invalid messages are
+ * reported at load time instead of when they are sent: the closing tags without opening tag, the unknown
+ * closing tags, the click and hover tags without a valid action and, when the placeholders are declared,
+ * the unknown tags. The invalid messages are kept with their source but have no template.
+ * <pre>
+ * &#64;Configuration( "messages" )
+ * public class Messages {
+ *     public MessageCatalog arena;
+ * }
+ *
+ * player.spigot().sendMessage( messages.arena.get( "join" ).render( "player", player.getName() ) );
+ * </pre>
+ *
+ * @author Frozen
+ */
+public final class MessageCatalog {
+
+    private static final Set<String> CLICK_ACTIONS = new HashSet<>( Arrays.asList( "run_command", "suggest_command", "open_url", "change_page" ) );
+
+    private final Map<String, String> sources;
+    private final Map<String, MessageTemplate> templates;
+    private final Map<String, String> errors;
+
+    private MessageCatalog( @NotNull Map<String, String> sources, @NotNull Map<String, MessageTemplate> templates,
+                            @NotNull Map<String, String> errors ) {
+        this.sources = Collections.unmodifiableMap( sources );
+        this.templates = templates;
+        this.errors = Collections.unmodifiableMap( errors );
+    }
+
+    /**
+     * Compile all the messages, the tags that aren't formatting or custom tags are placeholders
+     *
+     * @param messages Rich messages by key
+     * @return The catalog of the messages, with the errors of the invalid ones
+     */
+    @NotNull
+    public static MessageCatalog compile( @NotNull Map<String, String> messages ) {
+        return compile( messages, null );
+    }
+
+    /**
+     * Compile all the messages, the tags that aren't formatting tags, custom tags registered
+     * or declared placeholders are reported as errors, like a misspelled {@code <gren>}
+     *
+     * @param messages     Rich messages by key
+     * @param placeholders Names of the placeholders used by the messages, null to accept any name
+     * @return The catalog of the messages, with the errors of the invalid ones
+     */
+    @NotNull
+    public static MessageCatalog compile( @NotNull Map<String, String> messages, @Nullable Collection<String> placeholders ) {
+        Map<String, String> sources = new LinkedHashMap<>( messages );
+        Map<String, MessageTemplate> templates = new HashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        Set<String> names = placeholders != null ? new HashSet<>( placeholders ) : null;
+        sources.forEach( ( key, message ) -> {
+            try {
+                validate( key, message, names );
+                templates.put( key, MessageTemplate.compile( message ) );
+            } catch ( IllegalArgumentException e ) {
+                errors.put( key, e.getMessage() );
+            } catch ( RuntimeException e ) {
+                errors.put( key, key + ": " + ( e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName() ) );
+            }
+        } );
+        return new MessageCatalog( sources, templates, errors );
+    }
+
+    /**
+     * Check the tags of a message, for the mistakes the parser accepts silently
+     *
+     * @param key          Key of the message, for the errors
+     * @param message      Rich message to check
+     * @param placeholders Names of the placeholders, null to accept any name
+     * @throws IllegalArgumentException If the message is invalid, the error names the key and the tag
+     */
+    private static void validate( @NotNull String key, @NotNull String message, @Nullable Set<String> placeholders ) {
+        Deque<String> opened = new ArrayDeque<>();
+        TagScanner scanner = new TagScanner( message );
+        while ( scanner.find() ) {
+            String token = scanner.token();
+            int colon = token.indexOf( ':' );
+            String name = colon < 0 ? token : token.substring( 0, colon );
+            if ( name.startsWith( "/" ) ) {
+                String closed = name.substring( 1 ).toLowerCase( Locale.ROOT );
+                if ( colon >= 0 || ( Tag.get( token ) == null && !closed.equals( "click" ) && !closed.equals( "hover" ) ) ) {
+                    throw error( key, "unknown closing tag", token );
+                }
+                if ( !opened.removeFirstOccurrence( closed ) ) {
+                    throw error( key, "closing tag without opening tag", token );
+                }
+            } else if ( Tag.get( token ) != null ) {
+                opened.push( token.toLowerCase( Locale.ROOT ) );
+            } else if ( name.equals( "click" ) ) {
+                String[] args = token.split( ":" );
+                if ( args.length < 2 || !CLICK_ACTIONS.contains( args[1] ) ) {
+                    throw error( key, "invalid click action", token );
+                }
+                if ( ComponentParser.tagValue( token, scanner.inner() ).isEmpty() ) {
+                    throw error( key, "click tag without value", token );
+                }
+                opened.push( name );
+            } else if ( name.equals( "hover" ) ) {
+                try {
+                    ComponentParser.hoverAction( token );
+                } catch ( RuntimeException e ) {
+                    throw error( key, "invalid hover action", token );
+                }
+                validate( key, ComponentParser.tagValue( token, scanner.inner() ), placeholders );
+                opened.push( name );
+            } else if ( !MessageTemplate.isName( name ) ) {
+                throw error( key, "invalid tag", token );
+            } else if ( placeholders != null && !placeholders.contains( name ) && ComponentParser.getTagResolver( name ) == null ) {
+                throw error( key, "unknown tag", token );
+            }
+        }
+    }
+
+    @NotNull
+    private static IllegalArgumentException error( @NotNull String key, @NotNull String error, @NotNull String token ) {
+        return new IllegalArgumentException( key + ": " + error + " <" + token + ">" );
+    }
+
+    /**
+     * Get the template of a message
+     *
+     * @param key Key of the message
+     * @return The template or null if there is no valid message with this key
+     */
+    @Nullable
+    public MessageTemplate get( @NotNull String key ) {
+        return templates.get( key );
+    }
+
+    /**
+     * Get the template of a message that must exist
+     *
+     * @param key Key of the message
+     * @return The template
+     * @throws IllegalArgumentException If there is no valid message with this key
+     */
+    @NotNull
+    public MessageTemplate require( @NotNull String key ) {
+        MessageTemplate template = templates.get( key );
+        if ( template == null ) {
+            String error = errors.get( key );
+            throw new IllegalArgumentException( error != null
+                    ? "Invalid message " + key + ": " + error
+                    : "Unknown message " + key );
+        }
+        return template;
+    }
+
+    /**
+     * Check if a valid message is defined with this key
+     *
+     * @param key Key of the message
+     * @return True if the message exists and has been compiled
+     */
+    public boolean contains( @NotNull String key ) {
+        return templates.containsKey( key );
+    }
+
+    /**
+     * Get the rich message of a key, even if it is invalid
+     *
+     * @param key Key of the message
+     * @return The rich message or null if there is no message with this key
+     */
+    @Nullable
+    public String getSource( @NotNull String key ) {
+        return sources.get( key );
+    }
+
+    /**
+     * Get the rich messages of the catalog, including the invalid ones
+     *
+     * @return The rich messages by key, in the order they were defined
+     */
+    @NotNull
+    public Map<String, String> getSources() {
+        return sources;
+    }
+
+    /**
+     * Get the keys of the messages, including the invalid ones
+     *
+     * @return The keys in the order they were defined
+     */
+    @NotNull
+    public Set<String> getKeys() {
+        return sources.keySet();
+    }
+
+    /**
+     * Get the errors found when compiling the messages
+     *
+     * @return The error of each invalid message by key, empty if all the messages are valid
+     */
+    @NotNull
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return The number of valid messages
+     */
+    public int size() {
+        return templates.size();
+    }
+
+    @Override
+    public String toString() {
+        return "MessageCatalog{" + templates.size() + " messages, " + errors.size() + " errors}";
+    }
+
+}
@@ -0,0 +1,627 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A rich message parsed once by {@link #compile(String)} and rendered
+ * as many times as needed without parsing it again.
+ * <p>
+ * Every tag of the message is resolved at compilation, the unknown tags like {@code <player>}
+ * become placeholder slots filled when the template is rendered. Placeholders can be used in the text,
+ * in the hover text and in the click value. Contrary to {@link ComponentParser#parseFormat(String, String...)}
+ * the placeholder values are inserted as plain text, the tags they may contain are not parsed.
+ * The custom tags registered with {@link ComponentParser#registerTag(String, TagResolver)} are resolved
+ * by name at each render, with the resolver registered at this time, their argument can contain placeholders.
+ * A placeholder without value whose name is a registered tag is rendered as this tag.
+ * <pre>
+ * MessageTemplate join = MessageTemplate.compile( "&lt;yellow&gt;&lt;player&gt; joined the game" );
+ * player.spigot().sendMessage( join.render( "player", player.getName() ) );
+ * </pre>
+ *
+ * @author Frozen
+ */
+public final class MessageTemplate {
+
+    /**
+     * Mark a placeholder slot in an encoded message, the next char is the slot index
+     * This is a Unicode noncharacter, reserved for internal use
+     */
+    static final char MARKER = '\uFDD0';
+    private static final char SLOT_BASE = '\uE000';
+
+    private final String source;
+    private final Node[] nodes;
+    private final Map<String, Integer> slots;
+    private final List<String> placeholders;
+    private final boolean coalesce;
+    private final int tagsVersion;
+
+    private MessageTemplate( @NotNull String source, @NotNull Node[] nodes, @NotNull Map<String, Integer> slots,
+                             boolean coalesce, int tagsVersion ) {
+        this.source = source;
+        this.tagsVersion = tagsVersion;
+        this.nodes = nodes;
+        this.slots = slots;
+        this.coalesce = coalesce;
+        this.placeholders = Collections.unmodifiableList( new ArrayList<>( slots.keySet() ) );
+    }
+
+    /**
+     * Parse the rich message into a template
+     *
+     * @param richMessage Message to compile
+     * @return The template compiled
+     */
+    @NotNull
+    public static MessageTemplate compile( @NotNull String richMessage ) {
+        return compile( richMessage, false );
+    }
+
+    /**
+     * Parse the rich message into a template
+     * <p>
+     * When coalesce is enabled, the consecutive text parts having the same formatting are merged
+     * in a single component, at the compilation and at each render. For example {@code <red>a</red><red>b</red>}
+     * or a missing placeholder between two texts produce one component instead of two. This makes
+     * the message lighter to send and to display
+     *
+     * @param richMessage Message to compile
+     * @param coalesce    True to merge the consecutive text parts having the same formatting
+     * @return The template compiled
+     */
+    @NotNull
+    public static MessageTemplate compile( @NotNull String richMessage, boolean coalesce ) {
+        // read before the compilation, a tag registered meanwhile makes the template outdated
+        int tagsVersion = ComponentParser.getTagsVersion();
+        Compiler compiler = new Compiler( coalesce );
+        Node[] nodes = compiler.compileNodes( compiler.encode( richMessage ) );
+        return new MessageTemplate( richMessage, nodes, compiler.slots, coalesce, tagsVersion );
+    }
+
+    /**
+     * Get the names of the placeholders used by this template
+     *
+     * @return The names of the placeholders in order of appearance
+     */
+    @NotNull
+    public List<String> getPlaceholders() {
+        return placeholders;
+    }
+
+    /**
+     * Get the version of the registered tags when this template was compiled,
+     * see {@link ComponentParser#getTagsVersion()}
+     *
+     * @return The version of the tags
+     */
+    int getTagsVersion() {
+        return tagsVersion;
+    }
+
+    /**
+     * Get the rich message used to compile this template
+     *
+     * @return The rich message
+     */
+    @NotNull
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Render the template without placeholder values
+     *
+     * @return The components rendered
+     */
+    @NotNull
+    public BaseComponent[] render() {
+        return render( slot -> null );
+    }
+
+    /**
+     * Render the template
+     *
+     * @param placeholders Placeholders values as key, value, key, value...
+     * @return The components rendered
+     */
+    @NotNull
+    public BaseComponent[] render( @NotNull String... placeholders ) {
+        return render( values( placeholders ) );
+    }
+
+    /**
+     * Render the template
+     *
+     * @param placeholders Placeholders values by key
+     * @return The components rendered
+     */
+    @NotNull
+    public BaseComponent[] render( @NotNull Map<String, String> placeholders ) {
+        return render( values( placeholders ) );
+    }
+
+    /**
+     * Render the template, computing only the placeholders used by this template
+     *
+     * @param viewer       Player who will receive the message, given to the placeholders resolvers
+     * @param placeholders Registry of the placeholders resolvers
+     * @return The components rendered
+     */
+    @NotNull
+    public BaseComponent[] render( @Nullable Player viewer, @NotNull Placeholders placeholders ) {
+        return render( values( viewer, placeholders ) );
+    }
+
+    /**
+     * Render the template directly as chat json, without creating the components
+     *
+     * @param placeholders Placeholders values as key, value, key, value...
+     * @return The json of the message
+     */
+    @NotNull
+    public String renderJson( @NotNull String... placeholders ) {
+        return renderJson( values( placeholders ) );
+    }
+
+    /**
+     * Render the template directly as chat json, without creating the components
+     *
+     * @param placeholders Placeholders values by key
+     * @return The json of the message
+     */
+    @NotNull
+    public String renderJson( @NotNull Map<String, String> placeholders ) {
+        return renderJson( values( placeholders ) );
+    }
+
+    /**
+     * Render the template directly as chat json, without creating the components
+     *
+     * @param viewer       Player who will receive the message, given to the placeholders resolvers
+     * @param placeholders Registry of the placeholders resolvers
+     * @return The json of the message
+     */
+    @NotNull
+    public String renderJson( @Nullable Player viewer, @NotNull Placeholders placeholders ) {
+        return renderJson( values( viewer, placeholders ) );
+    }
+
+    @NotNull
+    String renderJson( @NotNull Values values ) {
+        JsonWriter writer = new JsonWriter( source.length() * 2 );
+        render( values, writer );
+        return writer.create();
+    }
+
+    /**
+     * Create the values of the slots from the placeholders pairs
+     *
+     * @param placeholders Placeholders values as key, value, key, value...
+     * @return The values, the first one defined for a key is used
+     */
+    @NotNull
+    Values values( @NotNull String... placeholders ) {
+        if ( placeholders.length % 2 != 0 ) {
+            throw new RuntimeException(
+                    "Invalid number placeholders defined, usage: render(key, value, key, value...)" );
+        }
+        String[] values = new String[slots.size()];
+        for ( int i = 0; i < placeholders.length; i += 2 ) {
+            Integer slot = slots.get( placeholders[i] );
+            if ( slot != null && values[slot] == null ) {
+                values[slot] = placeholders[i + 1];
+            }
+        }
+        return slot -> values[slot];
+    }
+
+    /**
+     * Create the values of the slots from the placeholders map
+     *
+     * @param placeholders Placeholders values by key
+     * @return The values
+     */
+    @NotNull
+    Values values( @NotNull Map<String, String> placeholders ) {
+        return slot -> placeholders.get( this.placeholders.get( slot ) );
+    }
+
+    /**
+     * Create the values of the slots computed on demand by the resolvers
+     *
+     * @param viewer       Player given to the resolvers
+     * @param placeholders Registry of the resolvers
+     * @return The values, each one computed at most once
+     */
+    @NotNull
+    Values values( @Nullable Player viewer, @NotNull Placeholders placeholders ) {
+        String[] values = new String[slots.size()];
+        boolean[] resolved = new boolean[values.length];
+        return slot -> {
+            if ( !resolved[slot] ) {
+                Function<Player, String> resolver = placeholders.get( this.placeholders.get( slot ) );
+                values[slot] = resolver != null ? resolver.apply( viewer ) : null;
+                resolved[slot] = true;
+            }
+            return values[slot];
+        };
+    }
+
+    /**
+     * Compute now the values of all the slots, to render the template later or on another thread
+     *
+     * @param viewer       Player given to the resolvers
+     * @param placeholders Registry of the resolvers
+     * @return The values computed
+     */
+    @NotNull
+    Values resolve( @Nullable Player viewer, @NotNull Placeholders placeholders ) {
+        Values lazy = values( viewer, placeholders );
+        String[] values = new String[slots.size()];
+        for ( int i = 0; i < values.length; i++ ) {
+            values[i] = lazy.get( i );
+        }
+        return slot -> values[slot];
+    }
+
+    @NotNull
+    BaseComponent[] render( @NotNull Values values ) {
+        ComponentCollector collector = new ComponentCollector();
+        render( values, collector );
+        return collector.create();
+    }
+
+    /**
+     * Render the template in one pass, the consecutive text nodes are
+     * merged in the same way {@link ComponentParser#parseFormat(String, String...)} merge the placeholders
+     * values with the text around them
+     *
+     * @param values Values of the slots
+     * @param sink   Receiver of the formatted text parts
+     */
+    void render( @NotNull Values values, @NotNull FormatParser.Sink sink ) {
+        if ( coalesce ) {
+            CoalescingSink coalescing = new CoalescingSink( sink );
+            renderNodes( values, coalescing );
+            coalescing.flush();
+        } else {
+            renderNodes( values, sink );
+        }
+    }
+
+    private void renderNodes( @NotNull Values values, @NotNull FormatParser.Sink sink ) {
+        StringBuilder buffer = new StringBuilder();
+        Map<Style, Style> bound = null;
+        Style style = null;
+        for ( Node node : nodes ) {
+            if ( node.type == Node.BREAK ) {
+                style = flush( buffer, style, sink );
+                continue;
+            }
+            if ( node.type == Node.TAG ) {
+                style = flush( buffer, style, sink );
+                sink.tag( node.name, node.text == null ? null : substitute( node.text, values ) );
+                continue;
+            }
+            String text = node.type == Node.TEXT ? node.text : values.get( node.slot );
+            if ( text == null ) {
+                // unknown placeholder, removed like any unknown tag unless a tag was registered with its name
+                style = flush( buffer, style, sink );
+                if ( ComponentParser.getTagResolver( node.name ) != null ) {
+                    sink.tag( node.name, null );
+                }
+                continue;
+            }
+            buffer.append( text );
+            style = node.style;
+            if ( style.dynamic ) {
+                if ( bound == null ) {
+                    bound = new IdentityHashMap<>();
+                }
+                style = bound.computeIfAbsent( style, s -> s.bind( values ) );
+            }
+        }
+        flush( buffer, style, sink );
+    }
+
+    @Nullable
+    private static Style flush( @NotNull StringBuilder buffer, @Nullable Style style, @NotNull FormatParser.Sink sink ) {
+        if ( buffer.length() > 0 ) {
+            sink.text( style, buffer );
+            buffer.setLength( 0 );
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "MessageTemplate{" + source + "}";
+    }
+
+    /**
+     * Check if the template contains custom tags, resolved at each render
+     *
+     * @return True if at least one custom tag is used
+     */
+    boolean hasTags() {
+        for ( Node node : nodes ) {
+            if ( node.type == Node.TAG ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if the text is a valid placeholder or tag name
+     *
+     * @param name Name to check
+     * @return True if all the chars are allowed in a name
+     */
+    static boolean isName( @NotNull String name ) {
+        for ( int i = 0; i < name.length(); i++ ) {
+            if ( !isNameChar( name.charAt( i ) ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNameChar( char c ) {
+        return c != '<' && c != '>' && c != '"' && c != ':' && c != '/' && c != MARKER && !Character.isWhitespace( c );
+    }
+
+    /**
+     * Check if the encoded text contains placeholder slots
+     *
+     * @param text Text to check
+     * @return True if the text contains at least one slot
+     */
+    static boolean hasSlots( @NotNull String text ) {
+        return text.indexOf( MARKER ) >= 0;
+    }
+
+    /**
+     * Replace the placeholder slots of an encoded text by their values
+     *
+     * @param text   Encoded text
+     * @param values Values of the slots
+     * @return The text with the values
+     */
+    @NotNull
+    static String substitute( @NotNull String text, @NotNull Values values ) {
+        StringBuilder sb = new StringBuilder( text.length() + 16 );
+        int length = text.length();
+        for ( int i = 0; i < length; i++ ) {
+            char c = text.charAt( i );
+            if ( c == MARKER && i + 1 < length ) {
+                String value = values.get( text.charAt( ++i ) - SLOT_BASE );
+                if ( value != null ) {
+                    sb.append( value );
+                }
+            } else {
+                sb.append( c );
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Provide the value of the placeholder slots during a render
+     */
+    interface Values {
+
+        /**
+         * Get the value of the slot
+         *
+         * @param slot Index of the slot
+         * @return The value or null if the placeholder is not defined
+         */
+        @Nullable
+        String get( int slot );
+
+    }
+
+    /**
+     * Compile a rich message and the hover texts inside it, sharing the same placeholder slots
+     */
+    static final class Compiler {
+
+        private final Map<String, Integer> slots = new LinkedHashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final boolean coalesce;
+
+        Compiler( boolean coalesce ) {
+            this.coalesce = coalesce;
+        }
+
+        /**
+         * Replace every placeholder of the message by a slot marker, so the tags
+         * containing placeholders can be parsed like the tags with their final values
+         *
+         * @param richMessage Message to encode
+         * @return The encoded message
+         */
+        @NotNull
+        String encode( @NotNull String richMessage ) {
+            StringBuilder sb = new StringBuilder( richMessage.length() );
+            int length = richMessage.length();
+            for ( int i = 0; i < length; i++ ) {
+                char c = richMessage.charAt( i );
+                if ( c == MARKER ) {
+                    sb.append( '\uFFFD' );
+                    continue;
+                }
+                if ( c == '<' ) {
+                    int end = i + 1;
+                    while ( end < length && isNameChar( richMessage.charAt( end ) ) ) {
+                        end++;
+                    }
+                    if ( end > i + 1 && end < length && richMessage.charAt( end ) == '>' ) {
+                        String name = richMessage.substring( i + 1, end );
+                        if ( !isTag( name ) ) {
+                            sb.append( MARKER ).append( (char) ( SLOT_BASE + slot( name ) ) );
+                            i = end;
+                            continue;
+                        }
+                    }
+                }
+                sb.append( c );
+            }
+            return sb.toString();
+        }
+
+        /**
+         * Compile the hover text of a tag, the text is already encoded
+         *
+         * @param encoded The encoded hover text
+         * @return The template of the hover text
+         */
+        @NotNull
+        MessageTemplate compileNested( @NotNull String encoded ) {
+            return new MessageTemplate( encoded, compileNodes( encoded ), slots, coalesce, ComponentParser.getTagsVersion() );
+        }
+
+        @NotNull
+        private Node[] compileNodes( @NotNull String encoded ) {
+            List<Node> nodes = new ArrayList<>();
+            FormatParser.Sink sink = new FormatParser.Sink() {
+                @Override
+                public void text( @NotNull Style style, @NotNull CharSequence text ) {
+                    if ( !nodes.isEmpty() ) {
+                        nodes.add( Node.BREAK_NODE );
+                    }
+                    int last = 0;
+                    int length = text.length();
+                    for ( int i = 0; i < length - 1; i++ ) {
+                        if ( text.charAt( i ) == MARKER ) {
+                            if ( i > last ) {
+                                nodes.add( new Node( Node.TEXT, style, text.subSequence( last, i ).toString(), -1 ) );
+                            }
+                            int slot = text.charAt( ++i ) - SLOT_BASE;
+                            nodes.add( new Node( Node.SLOT, style, null, slot, names.get( slot ) ) );
+                            last = i + 1;
+                        }
+                    }
+                    if ( length > last ) {
+                        nodes.add( new Node( Node.TEXT, style, text.subSequence( last, length ).toString(), -1 ) );
+                    }
+                }
+
+                @Override
+                public void tag( @NotNull String name, @Nullable String argument ) {
+                    nodes.add( new Node( name, argument ) );
+                }
+            };
+            if ( coalesce ) {
+                CoalescingSink coalescing = new CoalescingSink( sink );
+                new FormatParser( coalescing, this ).parse( encoded );
+                coalescing.flush();
+            } else {
+                new FormatParser( sink, this ).parse( encoded );
+            }
+            return nodes.toArray( new Node[0] );
+        }
+
+        private int slot( @NotNull String name ) {
+            return slots.computeIfAbsent( name, key -> {
+                names.add( key );
+                return slots.size();
+            } );
+        }
+
+        private static boolean isTag( @NotNull String name ) {
+            return Tag.get( name ) != null || ComponentParser.getTagResolver( name ) != null;
+        }
+
+    }
+
+    /**
+     * Element of a compiled template
+     */
+    static final class Node {
+
+        static final int TEXT = 0;
+        static final int SLOT = 1;
+        static final int BREAK = 2;
+        static final int TAG = 3;
+
+        static final Node BREAK_NODE = new Node( BREAK, null, null, -1 );
+
+        final int type;
+        final Style style;
+        final String text;
+        final int slot;
+
+        /**
+         * Name of the placeholder of a slot or of a custom tag
+         */
+        final String name;
+
+        Node( int type, @Nullable Style style, @Nullable String text, int slot ) {
+            this( type, style, text, slot, null );
+        }
+
+        Node( int type, @Nullable Style style, @Nullable String text, int slot, @Nullable String name ) {
+            this.type = type;
+            this.style = style;
+            this.text = text;
+            this.slot = slot;
+            this.name = name;
+        }
+
+        Node( @NotNull String name, @Nullable String argument ) {
+            this( TAG, null, argument, -1, name );
+        }
+
+        @Override
+        public String toString() {
+            switch ( type ) {
+                case TEXT:
+                    return text;
+                case SLOT:
+                    return "<#" + slot + ">";
+                case TAG:
+                    return "<" + name + ( text != null ? ":" + text : "" ) + ">";
+                default:
+                    return "|";
+            }
+        }
+
+    }
+
+}
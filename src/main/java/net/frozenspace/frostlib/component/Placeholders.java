@@ -0,0 +1,100 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Registry of placeholders computed when a {@link MessageTemplate} is rendered.
+ * Only the placeholders used by the template are computed, each one at most once per render.
+ * <pre>
+ * Placeholders placeholders = new Placeholders()
+ *         .register( "player", Player::getName )
+ *         .register( "online", () -&gt; String.valueOf( Bukkit.getOnlinePlayers().size() ) );
+ * player.spigot().sendMessage( template.render( player, placeholders ) );
+ * </pre>
+ * The registry is not synchronized, the placeholders should be registered before rendering.
+ *
+ * @author Frozen
+ */
+public final class Placeholders {
+
+    private final Map<String, Function<Player, String>> resolvers = new HashMap<>();
+
+    /**
+     * Register a placeholder depending on the player viewing the message
+     *
+     * @param name     Name of the placeholder
+     * @param resolver Function computing the value for the viewer, the viewer can be null
+     * @return The current instance
+     */
+    @NotNull
+    public Placeholders register( @NotNull String name, @NotNull Function<Player, String> resolver ) {
+        resolvers.put( name, resolver );
+        return this;
+    }
+
+    /**
+     * Register a placeholder with the same value for every viewer
+     *
+     * @param name     Name of the placeholder
+     * @param resolver Supplier computing the value
+     * @return The current instance
+     */
+    @NotNull
+    public Placeholders register( @NotNull String name, @NotNull Supplier<String> resolver ) {
+        return register( name, viewer -> resolver.get() );
+    }
+
+    /**
+     * Unregister a placeholder
+     *
+     * @param name Name of the placeholder
+     * @return The current instance
+     */
+    @NotNull
+    public Placeholders unregister( @NotNull String name ) {
+        resolvers.remove( name );
+        return this;
+    }
+
+    /**
+     * Get the resolver of a placeholder
+     *
+     * @param name Name of the placeholder
+     * @return The resolver or null if the placeholder isn't registered
+     */
+    @Nullable
+    public Function<Player, String> get( @NotNull String name ) {
+        return resolvers.get( name );
+    }
+
+}
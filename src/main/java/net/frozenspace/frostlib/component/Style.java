@@ -0,0 +1,206 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.frozenspace.frostlib.component.ComponentParser.TextDecoration;
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.HoverEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Immutable snapshot of the formatting active at a given point of a rich message
+ * (color, decorations, click and hover events)
+ *
+ * @author Frozen
+ */
+final class Style {
+
+    static final Style EMPTY = new Style( null, 0, null, null, null );
+
+    private static final TextDecoration[] DECORATIONS = TextDecoration.values();
+
+    final ChatColor color;
+    final int decorations;
+    final ClickEvent click;
+    final HoverEvent hover;
+
+    /**
+     * Template of the hover text when it contains placeholders, null otherwise
+     */
+    final MessageTemplate hoverTemplate;
+
+    /**
+     * True if the click value or the hover text depends on placeholder values
+     */
+    final boolean dynamic;
+
+    private String json;
+    private int size = -1;
+
+    Style( @Nullable ChatColor color, int decorations, @Nullable ClickEvent click, @Nullable HoverEvent hover,
+           @Nullable MessageTemplate hoverTemplate ) {
+        this.color = color;
+        this.decorations = decorations;
+        this.click = click;
+        this.hover = hover;
+        this.hoverTemplate = hoverTemplate;
+        this.dynamic = hoverTemplate != null || ( click != null && MessageTemplate.hasSlots( click.getValue() ) );
+    }
+
+    /**
+     * Check if the decoration is enabled in this style
+     *
+     * @param decoration Decoration to check
+     * @return True if the decoration is enabled
+     */
+    boolean has( @NotNull TextDecoration decoration ) {
+        return ( decorations & ( 1 << decoration.ordinal() ) ) != 0;
+    }
+
+    /**
+     * Check if the text formatted with this style looks the same as the text formatted with the other one.
+     * The hover events are compared by identity since their value can't be compared cheaply
+     *
+     * @param other Style to compare
+     * @return True if a text part with this style can be merged with a text part with the other style
+     */
+    boolean same( @NotNull Style other ) {
+        if ( this == other ) {
+            return true;
+        }
+        return color == other.color
+                && decorations == other.decorations
+                && hover == other.hover
+                && hoverTemplate == other.hoverTemplate
+                && ( click == other.click || ( click != null && other.click != null
+                && click.getAction() == other.click.getAction() && click.getValue().equals( other.click.getValue() ) ) );
+    }
+
+    /**
+     * Apply this style to the component
+     *
+     * @param component Component to format
+     */
+    void apply( @NotNull BaseComponent component ) {
+        if ( click != null ) {
+            component.setClickEvent( click );
+        }
+        if ( hover != null ) {
+            component.setHoverEvent( hover );
+        }
+        if ( color != null ) {
+            component.setColor( color );
+        }
+        if ( decorations != 0 ) {
+            for ( TextDecoration decoration : DECORATIONS ) {
+                if ( has( decoration ) ) {
+                    decoration.apply( component );
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the json of a text component with this style, without the text value and the closing quote and brace
+     *
+     * @return The beginning of the json, up to the opening quote of the text value
+     */
+    @NotNull
+    String json() {
+        String prefix = json;
+        if ( prefix == null ) {
+            StringBuilder sb = new StringBuilder( "{" );
+            if ( color != null ) {
+                sb.append( "\"color\":\"" ).append( color.getName() ).append( "\"," );
+            }
+            for ( TextDecoration decoration : DECORATIONS ) {
+                if ( has( decoration ) ) {
+                    sb.append( '"' ).append( decoration.name().toLowerCase( Locale.ROOT ) ).append( "\":true," );
+                }
+            }
+            if ( click != null ) {
+                sb.append( "\"clickEvent\":{\"action\":\"" ).append( click.getAction().name().toLowerCase( Locale.ROOT ) )
+                        .append( "\",\"value\":\"" );
+                JsonWriter.escape( click.getValue(), sb );
+                sb.append( "\"}," );
+            }
+            if ( hover != null ) {
+                sb.append( "\"hoverEvent\":{\"action\":\"" ).append( hover.getAction().name().toLowerCase( Locale.ROOT ) )
+                        .append( "\",\"value\":[" );
+                BaseComponent[] value = hover.getValue();
+                for ( int i = 0; i < value.length; i++ ) {
+                    if ( i > 0 ) {
+                        sb.append( ',' );
+                    }
+                    sb.append( net.md_5.bungee.chat.ComponentSerializer.toString( value[i] ) );
+                }
+                sb.append( "]}," );
+            }
+            prefix = json = sb.append( "\"text\":\"" ).toString();
+        }
+        return prefix;
+    }
+
+    /**
+     * Get the size of the json of a text component with this style, without the text value.
+     * Unlike {@link #json()}, the click value is measured as escaped by Gson, like {@link ChatPayload} does
+     *
+     * @return The number of chars of the json written by {@link net.md_5.bungee.chat.ComponentSerializer}
+     */
+    int size() {
+        int estimate = size;
+        if ( estimate < 0 ) {
+            estimate = size = ChatPayload.estimate( this );
+        }
+        return estimate;
+    }
+
+    /**
+     * Resolve the placeholders used by the click value and the hover text
+     *
+     * @param values Values of the template slots
+     * @return A style without placeholders, this instance if it is not dynamic
+     */
+    @NotNull
+    Style bind( @NotNull MessageTemplate.Values values ) {
+        if ( !dynamic ) {
+            return this;
+        }
+        ClickEvent boundClick = click;
+        if ( click != null && MessageTemplate.hasSlots( click.getValue() ) ) {
+            boundClick = new ClickEvent( click.getAction(), MessageTemplate.substitute( click.getValue(), values ) );
+        }
+        HoverEvent boundHover = hover;
+        if ( hoverTemplate != null ) {
+            boundHover = new HoverEvent( hover.getAction(), hoverTemplate.render( values ) );
+        }
+        return new Style( color, decorations, boundClick, boundHover, null );
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.frozenspace.frostlib.component.ComponentParser.TextDecoration;
+import net.md_5.bungee.api.ChatColor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * A color or decoration tag, opening like {@code <red>} or closing like {@code </red>}.
+ * All the tags are precomputed so resolving a token never allocates or throws
+ *
+ * @author Frozen
+ */
+final class Tag {
+
+    private static final TagTable<Tag> TAGS = new TagTable<>( true );
+
+    static {
+        for ( ChatColor color : ChatColor.values() ) {
+            register( color.name(), color, null );
+        }
+        // the decorations take precedence over the colors with the same name (bold, italic...)
+        for ( TextDecoration decoration : TextDecoration.values() ) {
+            register( decoration.name(), null, decoration );
+        }
+    }
+
+    final ChatColor color;
+    final TextDecoration decoration;
+    final boolean closing;
+
+    private Tag( @Nullable ChatColor color, @Nullable TextDecoration decoration, boolean closing ) {
+        this.color = color;
+        this.decoration = decoration;
+        this.closing = closing;
+    }
+
+    private static void register( @NotNull String name, @Nullable ChatColor color, @Nullable TextDecoration decoration ) {
+        String key = name.toLowerCase( Locale.ROOT );
+        TAGS.put( key, new Tag( color, decoration, false ) );
+        TAGS.put( "/" + key, new Tag( color, decoration, true ) );
+    }
+
+    /**
+     * Find the tag of a token, ignoring the case
+     *
+     * @param input Char sequence containing the token
+     * @param start Index of the first char of the token
+     * @param end   Index after the last char of the token
+     * @return The tag or null if the token isn't a color or a decoration
+     */
+    @Nullable
+    static Tag get( @NotNull CharSequence input, int start, int end ) {
+        return TAGS.get( input, start, end );
+    }
+
+    /**
+     * Find the tag of a token, ignoring the case
+     *
+     * @param token The token
+     * @return The tag or null if the token isn't a color or a decoration
+     */
+    @Nullable
+    static Tag get( @NotNull CharSequence token ) {
+        return TAGS.get( token );
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Resolve a custom tag registered with {@link ComponentParser#registerTag(String, TagResolver)}.
+ * <p>
+ * The resolver is called each time the tag is found by {@link ComponentParser#parseFormat(String)}
+ * or rendered by a {@link MessageTemplate}, it should return precomputed components when possible.
+ * The components are inserted as they are, without the formatting of the text around the tag,
+ * and they may be shared between messages so they must not be modified.
+ *
+ * @author Frozen
+ */
+@FunctionalInterface
+public interface TagResolver {
+
+    /**
+     * Resolve the tag
+     *
+     * @param argument Text after the first {@code :} of the tag ({@code Steve} for {@code <ping:Steve>}),
+     *                 or null if the tag has no argument
+     * @return The components to insert, or null to ignore the tag
+     */
+    @Nullable
+    BaseComponent[] resolve( @Nullable String argument );
+
+}
@@ -0,0 +1,199 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Find the tags of a rich message in a single pass.
+ * <p>
+ * A tag is either {@code <token>} where the token contains no {@code <} or {@code >},
+ * or {@code <token"inner">} where the quoted inner value can contain other tags.
+ * The tags found are the same as the ones matched by the previous regex
+ * {@code <([^<>]+|[^<>]+"[^"]+")>} in linear time: each char is read a constant number of times,
+ * whatever the input is.
+ *
+ * @author Frozen
+ */
+final class TagScanner {
+
+    private final CharSequence input;
+    private final int end;
+
+    private int position;
+
+    // cache of the last quote search, queries are always increasing
+    private int quoteFrom = Integer.MAX_VALUE;
+    private int quoteAt = -1;
+
+    private int start = -1;
+    private int tokenEnd = -1;
+    private int innerStart = -1;
+    private int innerEnd = -1;
+
+    /**
+     * Scan the whole input
+     *
+     * @param input Rich message to scan
+     */
+    TagScanner( @NotNull CharSequence input ) {
+        this( input, 0, input.length() );
+    }
+
+    /**
+     * Scan a region of the input
+     *
+     * @param input Rich message to scan
+     * @param start Index of the first char of the region
+     * @param end   Index after the last char of the region
+     */
+    TagScanner( @NotNull CharSequence input, int start, int end ) {
+        this.input = input;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * Find the next tag
+     *
+     * @return True if a tag has been found
+     */
+    boolean find() {
+        int i = position;
+        while ( ( i = indexOf( '<', i ) ) >= 0 ) {
+            int runEnd = i + 1;
+            int lastQuote = -1;
+            while ( runEnd < end ) {
+                char c = input.charAt( runEnd );
+                if ( c == '<' || c == '>' ) {
+                    break;
+                }
+                if ( c == '"' ) {
+                    lastQuote = runEnd;
+                }
+                runEnd++;
+            }
+            // <token>
+            if ( runEnd > i + 1 && runEnd < end && input.charAt( runEnd ) == '>' ) {
+                return found( i, runEnd, -1, -1 );
+            }
+            // <token"inner">, only the last quote of the token can open the inner value
+            if ( lastQuote >= i + 2 ) {
+                int closing = nextQuote( lastQuote + 1 );
+                if ( closing > lastQuote + 1 && closing + 1 < end && input.charAt( closing + 1 ) == '>' ) {
+                    return found( i, closing + 1, lastQuote + 1, closing );
+                }
+            }
+            i = runEnd;
+        }
+        position = end;
+        return false;
+    }
+
+    private boolean found( int start, int tokenEnd, int innerStart, int innerEnd ) {
+        this.start = start;
+        this.tokenEnd = tokenEnd;
+        this.innerStart = innerStart;
+        this.innerEnd = innerEnd;
+        this.position = tokenEnd + 1;
+        return true;
+    }
+
+    private int indexOf( char c, int from ) {
+        for ( int i = from; i < end; i++ ) {
+            if ( input.charAt( i ) == c ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int nextQuote( int from ) {
+        if ( from < quoteFrom || ( quoteAt >= 0 && from > quoteAt ) ) {
+            quoteFrom = from;
+            quoteAt = indexOf( '"', from );
+        }
+        return quoteAt;
+    }
+
+    /**
+     * @return Index of the {@code <} of the last tag found
+     */
+    int start() {
+        return start;
+    }
+
+    /**
+     * @return Index after the {@code >} of the last tag found
+     */
+    int end() {
+        return tokenEnd + 1;
+    }
+
+    /**
+     * @return Index of the first char of the token
+     */
+    int tokenStart() {
+        return start + 1;
+    }
+
+    /**
+     * @return Index after the last char of the token
+     */
+    int tokenEnd() {
+        return tokenEnd;
+    }
+
+    /**
+     * @return Index of the first char of the inner value, -1 if the tag has no inner value
+     */
+    int innerStart() {
+        return innerStart;
+    }
+
+    /**
+     * @return Index after the last char of the inner value, -1 if the tag has no inner value
+     */
+    int innerEnd() {
+        return innerEnd;
+    }
+
+    /**
+     * @return The token of the last tag found, between {@code <} and {@code >}
+     */
+    @NotNull
+    String token() {
+        return input.subSequence( start + 1, tokenEnd ).toString();
+    }
+
+    /**
+     * @return The quoted value of the last tag found, or null if there is none
+     */
+    @Nullable
+    String inner() {
+        return innerStart < 0 ? null : input.subSequence( innerStart, innerEnd ).toString();
+    }
+
+}
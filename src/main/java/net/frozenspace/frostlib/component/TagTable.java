@@ -0,0 +1,166 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Open addressing hash table with {@link String} keys, queried with a region
+ * of a {@link CharSequence} so the lookup doesn't need to allocate a substring.
+ * The keys can be compared ignoring the ASCII case.
+ *
+ * @param <V> Type of the values
+ * @author Frozen
+ */
+final class TagTable<V> {
+
+    private final boolean ignoreCase;
+
+    private String[] keys = new String[16];
+    private Object[] values = new Object[16];
+    private int size = 0;
+
+    /**
+     * Default constructor
+     *
+     * @param ignoreCase True if the keys are compared ignoring the ASCII case
+     */
+    TagTable( boolean ignoreCase ) {
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * Copy constructor
+     *
+     * @param table Table to copy
+     */
+    TagTable( @NotNull TagTable<V> table ) {
+        this.ignoreCase = table.ignoreCase;
+        this.keys = table.keys.clone();
+        this.values = table.values.clone();
+        this.size = table.size;
+    }
+
+    /**
+     * Put a value in the table, replacing the previous value of the key
+     *
+     * @param key   Key of the value
+     * @param value Value to put
+     */
+    void put( @NotNull String key, @NotNull V value ) {
+        if ( ( size + 1 ) * 2 > keys.length ) {
+            resize();
+        }
+        int index = indexOf( key, 0, key.length() );
+        if ( keys[index] == null ) {
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Get the value of the key
+     *
+     * @param key Key to find
+     * @return The value or null if the key is not in the table
+     */
+    @Nullable
+    V get( @NotNull CharSequence key ) {
+        return get( key, 0, key.length() );
+    }
+
+    /**
+     * Get the value of the key contained in a region of the char sequence
+     *
+     * @param input Char sequence containing the key
+     * @param start Index of the first char of the key
+     * @param end   Index after the last char of the key
+     * @return The value or null if the key is not in the table
+     */
+    @Nullable
+    @SuppressWarnings( "unchecked" )
+    V get( @NotNull CharSequence input, int start, int end ) {
+        return (V) values[indexOf( input, start, end )];
+    }
+
+    /**
+     * Get the number of keys in the table
+     *
+     * @return The number of keys
+     */
+    int size() {
+        return size;
+    }
+
+    private int indexOf( @NotNull CharSequence input, int start, int end ) {
+        int mask = keys.length - 1;
+        int index = hash( input, start, end ) & mask;
+        String key;
+        while ( ( key = keys[index] ) != null && !matches( key, input, start, end ) ) {
+            index = ( index + 1 ) & mask;
+        }
+        return index;
+    }
+
+    private boolean matches( @NotNull String key, @NotNull CharSequence input, int start, int end ) {
+        if ( key.length() != end - start ) {
+            return false;
+        }
+        for ( int i = 0; i < key.length(); i++ ) {
+            if ( fold( key.charAt( i ) ) != fold( input.charAt( start + i ) ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash( @NotNull CharSequence input, int start, int end ) {
+        int hash = 0;
+        for ( int i = start; i < end; i++ ) {
+            hash = 31 * hash + fold( input.charAt( i ) );
+        }
+        return hash ^ ( hash >>> 16 );
+    }
+
+    private char fold( char c ) {
+        return ignoreCase && c >= 'A' && c <= 'Z' ? (char) ( c + ( 'a' - 'A' ) ) : c;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void resize() {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new String[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        size = 0;
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            if ( oldKeys[i] != null ) {
+                put( oldKeys[i], (V) oldValues[i] );
+            }
+        }
+    }
+
+}
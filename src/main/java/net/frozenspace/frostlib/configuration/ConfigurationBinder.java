@@ -0,0 +1,74 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+
+/**
+ * Direct access to the fields of a {@link Configuration} class, without reflection.
+ * The binders are generated at compile time by the FrostLib processor, for a class
+ * {@code Settings} the binder is {@code SettingsBinder} in the same package
+ * ({@code Outer_InnerBinder} for a nested class) and the {@link ConfigurationLoader}
+ * uses it instead of reflection when it is present.
+ * <p>
+ * The fields which can't be accessed from the package (private, final or inherited fields)
+ * aren't bound and are still accessed through reflection
+ *
+ * @param <T> Type of the configuration
+ * @author Frozen
+ */
+public interface ConfigurationBinder<T> {
+
+    /**
+     * Get the names of the fields bound
+     *
+     * @return The names of the fields this binder can read and write
+     */
+    @NotNull
+    Set<String> getFields();
+
+    /**
+     * Read the value of a field
+     *
+     * @param obj   Configuration containing the field
+     * @param field Name of the field
+     * @return The value of the field
+     */
+    @Nullable
+    Object get( @NotNull T obj, @NotNull String field );
+
+    /**
+     * Write the value of a field
+     *
+     * @param obj   Configuration containing the field
+     * @param field Name of the field
+     * @param value New value of the field
+     * @throws ClassCastException If the value isn't exactly of the field type
+     */
+    void set( @NotNull T obj, @NotNull String field, @Nullable Object value );
+
+}
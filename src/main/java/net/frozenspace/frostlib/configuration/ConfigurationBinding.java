@@ -0,0 +1,321 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.configuration;
+
+import net.frozenspace.frostlib.component.MessageCatalog;
+import net.frozenspace.frostlib.util.ReflectUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * The fields of a class bound by the {@link ConfigurationLoader}, computed once per class
+ * so the loads and saves don't scan the class and its annotations again.
+ * The fields are accessed through the generated {@link ConfigurationBinder} of the class when
+ * it exists, through method handles otherwise
+ *
+ * @author Frozen
+ */
+final class ConfigurationBinding {
+
+    private static final ClassValue<ConfigurationBinding> BINDINGS = new ClassValue<ConfigurationBinding>() {
+        @Override
+        protected ConfigurationBinding computeValue( Class<?> type ) {
+            return new ConfigurationBinding( type );
+        }
+    };
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER = MethodType.methodType( Object.class, Object.class );
+    private static final MethodType SETTER = MethodType.methodType( void.class, Object.class, Object.class );
+
+    /**
+     * Annotation of the class, null if the class isn't a configuration
+     */
+    final Configuration configuration;
+
+    private final Plan load;
+    private final Plan loadManaged;
+    private final Plan save;
+    private final Plan saveManaged;
+
+    private ConfigurationBinding( @NotNull Class<?> type ) {
+        this.configuration = type.getAnnotation( Configuration.class );
+        final ConfigurationBinder<Object> binder = binder( type );
+        final List<Accessor> fields = new ArrayList<>();
+        for ( Field field : ReflectUtil.getAllFields( type ) ) {
+            final ConfigurationBinder<Object> fieldBinder = binder != null && field.getDeclaringClass() == type
+                    && binder.getFields().contains( field.getName() ) ? binder : null;
+            if ( field.getType().isAnnotationPresent( Configuration.class ) ) {
+                fields.add( new Accessor( field, fieldBinder ) );
+            } else {
+                fields.add( new Property( field, fieldBinder ) );
+            }
+        }
+        this.load = new Plan( fields, f -> !f.isAnnotationPresent( Manage.class ) || f.getAnnotation( Manage.class ).load() );
+        this.loadManaged = new Plan( fields, f -> f.isAnnotationPresent( Manage.class ) );
+        this.save = new Plan( fields, f -> !f.isAnnotationPresent( Manage.class ) || f.getAnnotation( Manage.class ).save() );
+        this.saveManaged = loadManaged;
+    }
+
+    /**
+     * Get the binding of a class
+     *
+     * @param type Class to bind
+     * @return The binding, computed at the first call for this class
+     */
+    @NotNull
+    static ConfigurationBinding of( @NotNull Class<?> type ) {
+        return BINDINGS.get( type );
+    }
+
+    /**
+     * Find the generated binder of a class
+     *
+     * @param type Class to bind
+     * @return A new instance of the binder, null if the class has no binder
+     */
+    @Nullable
+    @SuppressWarnings( "unchecked" )
+    private static ConfigurationBinder<Object> binder( @NotNull Class<?> type ) {
+        final String name = type.getName();
+        final int simpleName = name.lastIndexOf( '.' ) + 1;
+        final String binderName = name.substring( 0, simpleName ) + name.substring( simpleName ).replace( '$', '_' ) + "Binder";
+        try {
+            final Class<?> binder = Class.forName( binderName, true, type.getClassLoader() );
+            if ( ConfigurationBinder.class.isAssignableFrom( binder ) ) {
+                return (ConfigurationBinder<Object>) binder.getDeclaredConstructor().newInstance();
+            }
+        } catch ( ReflectiveOperationException | LinkageError e ) {
+            // no binder generated for this class
+        }
+        return null;
+    }
+
+    /**
+     * Get the fields to load
+     *
+     * @param excludeFieldsWithoutManage True to only keep the fields with the {@link Manage} annotation
+     * @return The fields to load
+     */
+    @NotNull
+    Plan load( boolean excludeFieldsWithoutManage ) {
+        return excludeFieldsWithoutManage ? loadManaged : load;
+    }
+
+    /**
+     * Get the fields to save
+     *
+     * @param excludeFieldsWithoutManage True to only keep the fields with the {@link Manage} annotation
+     * @return The fields to save
+     */
+    @NotNull
+    Plan save( boolean excludeFieldsWithoutManage ) {
+        return excludeFieldsWithoutManage ? saveManaged : save;
+    }
+
+    /**
+     * The fields bound for a load or a save
+     */
+    static final class Plan {
+
+        /**
+         * Fields stored in the file of the configuration
+         */
+        final List<Property> properties;
+
+        /**
+         * Fields whose type is another configuration, stored in their own file
+         */
+        final List<Accessor> nested;
+
+        private Plan( @NotNull List<Accessor> fields, @NotNull Predicate<Field> filter ) {
+            final List<Property> properties = new ArrayList<>();
+            final List<Accessor> nested = new ArrayList<>();
+            for ( Accessor accessor : fields ) {
+                if ( !filter.test( accessor.field ) ) {
+                    continue;
+                }
+                if ( accessor instanceof Property ) {
+                    properties.add( (Property) accessor );
+                } else {
+                    nested.add( accessor );
+                }
+            }
+            this.properties = Collections.unmodifiableList( properties );
+            this.nested = Collections.unmodifiableList( nested );
+        }
+
+    }
+
+    /**
+     * Read and write access to a field, through the binder of the class or through
+     * method handles created once instead of a reflective access on every load and save
+     */
+    static class Accessor {
+
+        final Field field;
+
+        private final ConfigurationBinder<Object> binder;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        Accessor( @NotNull Field field, @Nullable ConfigurationBinder<Object> binder ) {
+            this.field = field;
+            this.binder = binder;
+            MethodHandle getter = null;
+            MethodHandle setter = null;
+            if ( binder == null ) {
+                try {
+                    field.setAccessible( true );
+                    getter = LOOKUP.unreflectGetter( field );
+                    setter = LOOKUP.unreflectSetter( field );
+                } catch ( IllegalAccessException | RuntimeException e ) {
+                    // the accesses fall back to reflection, which reports the error
+                }
+            }
+            this.getter = getter != null ? adapt( getter, field, GETTER ) : null;
+            this.setter = setter != null ? adapt( setter, field, SETTER ) : null;
+        }
+
+        /**
+         * Read the value of the field
+         *
+         * @param obj Object containing the field
+         * @return The value of the field
+         * @throws IllegalAccessException If the field can't be read
+         */
+        Object get( @NotNull Object obj ) throws IllegalAccessException {
+            if ( binder != null ) {
+                return binder.get( obj, field.getName() );
+            }
+            if ( getter == null ) {
+                return field.get( obj );
+            }
+            try {
+                return (Object) getter.invokeExact( obj );
+            } catch ( RuntimeException | Error e ) {
+                throw e;
+            } catch ( Throwable t ) {
+                throw new UndeclaredThrowableException( t );
+            }
+        }
+
+        /**
+         * Write the value of the field
+         * The values which aren't exactly of the field type (an integer for a double field...)
+         * are converted like {@link Field#set(Object, Object)} does
+         *
+         * @param obj   Object containing the field
+         * @param value New value of the field
+         * @throws IllegalAccessException If the field can't be written
+         */
+        void set( @NotNull Object obj, @NotNull Object value ) throws IllegalAccessException {
+            if ( binder != null ) {
+                try {
+                    binder.set( obj, field.getName(), value );
+                } catch ( ClassCastException e ) {
+                    field.setAccessible( true );
+                    field.set( obj, value );
+                }
+                return;
+            }
+            if ( setter == null ) {
+                field.set( obj, value );
+                return;
+            }
+            try {
+                setter.invokeExact( obj, value );
+            } catch ( ClassCastException e ) {
+                field.set( obj, value );
+            } catch ( RuntimeException | Error e ) {
+                throw e;
+            } catch ( Throwable t ) {
+                throw new UndeclaredThrowableException( t );
+            }
+        }
+
+        /**
+         * Adapt a field handle to take the object as an Object, even for the static fields,
+         * and to take or return the value as an Object
+         */
+        @NotNull
+        private static MethodHandle adapt( @NotNull MethodHandle handle, @NotNull Field field, @NotNull MethodType type ) {
+            if ( Modifier.isStatic( field.getModifiers() ) ) {
+                handle = MethodHandles.dropArguments( handle, 0, Object.class );
+            }
+            return handle.asType( type );
+        }
+
+    }
+
+    /**
+     * A field stored in the file of the configuration
+     */
+    static final class Property extends Accessor {
+
+        /**
+         * Key in the file, from the {@link Key} annotation or the field name
+         */
+        final String key;
+
+        /**
+         * True if the field is a {@link MessageCatalog} compiled from a section
+         */
+        final boolean catalog;
+
+        /**
+         * Placeholders of the messages of a catalog from the {@link MessagePlaceholders} annotation,
+         * null if they aren't declared
+         */
+        final List<String> placeholders;
+
+        private Property( @NotNull Field field, @Nullable ConfigurationBinder<Object> binder ) {
+            super( field, binder );
+            final Key key = field.getAnnotation( Key.class );
+            this.key = key != null ? key.value() : field.getName();
+            this.catalog = field.getType() == MessageCatalog.class;
+            final MessagePlaceholders placeholders = field.getAnnotation( MessagePlaceholders.class );
+            this.placeholders = placeholders != null ? Arrays.asList( placeholders.value() ) : null;
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+
+    }
+
+}
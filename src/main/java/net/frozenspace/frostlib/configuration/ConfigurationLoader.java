@@ -23,23 +23,49 @@
 */
 package net.frozenspace.frostlib.configuration;
 
+import net.frozenspace.frostlib.component.MessageCatalog;
 import net.frozenspace.frostlib.data.Loader;
-import net.frozenspace.frostlib.util.ReflectUtil;
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.reflect.FieldUtils;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Field;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * CommandManager is used for creating/loading configuration file
@@ -53,6 +79,15 @@ public class ConfigurationLoader extends Loader {
     private final Plugin plugin;
 
     private boolean excludeFieldsWithoutManage = false;
+    private volatile Executor executor;
+    private ExecutorService ownExecutor;
+    private volatile long writeBehind;
+
+    private final Executor mainThread;
+    private final Map<File, CompletableFuture<?>> queue = new ConcurrentHashMap<>();
+    private final Map<File, Object> locks = new ConcurrentHashMap<>();
+    private final Map<File, Written> written = new ConcurrentHashMap<>();
+    private final Map<File, Deferred> deferred = new ConcurrentHashMap<>();
 
     /**
      * Default constructor
@@ -61,6 +96,12 @@ public class ConfigurationLoader extends Loader {
      */
     public ConfigurationLoader( @NotNull Plugin plugin ) {
         this.plugin = plugin;
+        this.mainThread = command -> new BukkitRunnable() {
+            @Override
+            public void run() {
+                command.run();
+            }
+        }.runTask( this.plugin );
     }
 
     /**
@@ -75,11 +116,51 @@ public class ConfigurationLoader extends Loader {
         return this;
     }
 
+    /**
+     * This method set the executor used by {@link #loadAsync(Object)} and {@link #saveAsync(Object)}
+     * for reading and writing the files, a daemon thread of the loader is used by default.
+     * The executor isn't stopped by {@link #shutdown()}
+     *
+     * @param executor Executor of the file operations
+     * @return The current instance
+     */
+    @NotNull
+    public synchronized ConfigurationLoader useExecutor( @NotNull Executor executor ) {
+        Validate.notNull( executor, "[ConfigurationLoader] Trying to use a null executor." );
+        if ( ownExecutor != null ) {
+            // the operations already submitted are completed
+            ownExecutor.shutdown();
+            ownExecutor = null;
+        }
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * This method enable the write-behind mode, the saves are delayed and all the saves of
+     * the same file during the delay are written once, with the values of the last save.
+     * Call {@link #shutdown()} when the plugin is disabled to write the pending saves
+     *
+     * @param delay Delay of the writes, 0 to write the saves immediately
+     * @param unit  Unit of the delay
+     * @return The current instance
+     * @see #flush()
+     */
+    @NotNull
+    public ConfigurationLoader writeBehind( long delay, @NotNull TimeUnit unit ) {
+        Validate.isTrue( delay >= 0, "[ConfigurationLoader] The write-behind delay can't be negative." );
+        this.writeBehind = unit.toMillis( delay );
+        return this;
+    }
+
     /**
      * This method will load all the field in the object in parameter
      * If {@link #excludeFieldsWithoutManageAnnotation()} has been called before
      * All the fields without this annotation will be ignored
      *
+     * The file is read after the saves of the same file submitted before, this method must not be
+     * called from the executor of the loader
+     *
      * @param obj Object to load
      * @param <T> Type of the object to load
      * @return The object loaded
@@ -87,127 +168,552 @@ public class ConfigurationLoader extends Loader {
     @NotNull
     public <T> T load( @NotNull T obj ) {
         Validate.notNull( obj, "[ConfigurationLoader] Trying to load a null object." );
-        final Configuration configuration = obj.getClass().getAnnotation( Configuration.class );
-        if ( configuration != null ) {
-            final File file = create( configuration );
-            final FileConfiguration fileConfiguration = new YamlConfiguration();
+        final Configuration configuration = ConfigurationBinding.of( obj.getClass() ).configuration;
+        if ( configuration == null ) {
+            return obj;
+        }
+        final File file = file( configuration );
+        flushPending( file );
+        return await( file, () -> loadNow( obj ) );
+    }
+
+    /**
+     * This method read the file and set the fields of the object on this thread, without waiting
+     * for the operations submitted before
+     *
+     * @param obj Object to load
+     * @param <T> Type of the object to load
+     * @return The object loaded
+     */
+    @NotNull
+    private <T> T loadNow( @NotNull T obj ) {
+        final Map<ConfigurationBinding.Accessor, Object> values = read( obj.getClass() );
+        if ( values != null ) {
+            apply( obj, values );
+        }
+        return obj;
+    }
+
+    /**
+     * This method will read and parse the file of the object on the executor of the loader,
+     * then set the fields of the object on the server thread.
+     * The reads are done after the saves of the same file submitted before
+     *
+     * @param obj Object to load
+     * @param <T> Type of the object to load
+     * @return The object loaded, completed on the server thread
+     * @see #load(Object)
+     */
+    @NotNull
+    public <T> CompletableFuture<T> loadAsync( @NotNull T obj ) {
+        Validate.notNull( obj, "[ConfigurationLoader] Trying to load a null object." );
+        final Configuration configuration = ConfigurationBinding.of( obj.getClass() ).configuration;
+        if ( configuration == null ) {
+            return CompletableFuture.completedFuture( obj );
+        }
+        final File file = file( configuration );
+        flushPending( file );
+        return submit( file, () -> read( obj.getClass() ) ).thenApplyAsync( values -> {
+            apply( obj, values );
+            return obj;
+        }, mainThread );
+    }
+
+    /**
+     * This method will create a new instance of the class and load it on the executor of the loader
+     *
+     * @param clazz The class to load
+     * @param <T>   Type of the object to load
+     * @return The object loaded, completed on the server thread
+     * @see #load(Class)
+     */
+    @NotNull
+    public <T> CompletableFuture<T> loadAsync( @NotNull Class<T> clazz ) {
+        Validate.notNull( clazz, "[ConfigurationLoader] Trying to load a null class." );
+        return loadAsync( newInstance( clazz ) );
+    }
+
+    /**
+     * This method will save all the field of the object in the file
+     * If {@link #excludeFieldsWithoutManageAnnotation()} has been called before
+     * All the fields without this annotation will be ignored
+     * The file isn't written if the values didn't change since the last save of this loader, the values
+     * that can be modified in place and aren't collections, maps, arrays or serializable objects are always written.
+     * The file is written now even in write-behind mode, replacing the delayed save of the file.
+     * The file is replaced atomically but without waiting for the disk, unlike {@link #saveAsync(Object)}.
+     * The file is written after the saves of the same file submitted before, this method must not be
+     * called from the executor of the loader
+     *
+     * @param obj Object to save
+     */
+    public void save( @NotNull Object obj ) {
+        final Snapshot snapshot = snapshot( obj, false );
+        if ( snapshot == null ) {
+            return;
+        }
+        final File file = file( snapshot.configuration );
+        final Deferred pending = deferred.remove( file );
+        try {
+            await( file, () -> {
+                write( snapshot, false );
+                return null;
+            } );
+        } catch ( RuntimeException | Error e ) {
+            if ( pending != null ) {
+                pending.future.completeExceptionally( e );
+            }
+            throw e;
+        }
+        if ( pending != null ) {
+            // the values of the delayed save were replaced by the ones written
+            pending.future.complete( null );
+        }
+    }
+
+    /**
+     * This method will read the fields of the object on this thread, then write them in the file
+     * on the executor of the loader. The saves of the same file are written one after the other,
+     * in the order of the calls. The collections, maps and arrays are copied, the other values must not be
+     * modified in place until the save is completed.
+     * The saves not written yet are lost if the server stops, call {@link #shutdown()} when the plugin is disabled.
+     * In write-behind mode the write is delayed, see {@link #writeBehind(long, TimeUnit)}
+     *
+     * @param obj Object to save
+     * @return A future completed on the executor once the file is written
+     * @see #save(Object)
+     */
+    @NotNull
+    public CompletableFuture<Void> saveAsync( @NotNull Object obj ) {
+        final Snapshot snapshot = snapshot( obj, true );
+        if ( snapshot == null ) {
+            return CompletableFuture.completedFuture( null );
+        }
+        if ( writeBehind > 0 ) {
+            return defer( snapshot );
+        }
+        return submit( file( snapshot.configuration ), () -> {
+            write( snapshot, true );
+            return null;
+        } );
+    }
+
+    /**
+     * This method write now the saves delayed by the write-behind mode
+     *
+     * @return A future completed once the pending saves are written
+     */
+    @NotNull
+    public CompletableFuture<Void> flush() {
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        deferred.forEach( ( file, pending ) -> {
+            futures.add( pending.future );
+            flush( file, pending );
+        } );
+        return CompletableFuture.allOf( futures.toArray( new CompletableFuture[0] ) );
+    }
+
+    /**
+     * This method write the delayed saves, wait for all the operations submitted then stop the thread
+     * created by the loader. Call it when the plugin is disabled, the loader can still be used after.
+     * The executor given to {@link #useExecutor(Executor)} isn't stopped
+     */
+    public void shutdown() {
+        final CompletableFuture<Void> flushed = flush();
+        CompletableFuture<?>[] pending;
+        while ( ( pending = queue.values().toArray( new CompletableFuture[0] ) ).length > 0 ) {
+            CompletableFuture.allOf( pending ).handle( ( result, e ) -> null ).join();
+            // the completed operations are removed from the queue
+            queue.values().removeIf( CompletableFuture::isDone );
+        }
+        // the futures of the delayed saves are completed after their write
+        flushed.handle( ( result, e ) -> null ).join();
+        synchronized ( this ) {
+            if ( ownExecutor != null ) {
+                ownExecutor.shutdown();
+                ownExecutor = null;
+                executor = null;
+            }
+        }
+    }
+
+    /**
+     * This method read the values of the fields of a configuration class from its file,
+     * the nested configurations are loaded into new instances
+     *
+     * @param type Class of the configuration
+     * @return The values by field or null if the class isn't a configuration
+     */
+    @Nullable
+    private Map<ConfigurationBinding.Accessor, Object> read( @NotNull Class<?> type ) {
+        final ConfigurationBinding binding = ConfigurationBinding.of( type );
+        final Configuration configuration = binding.configuration;
+        if ( configuration == null ) {
+            return null;
+        }
+        final File file = file( configuration );
+        final FileConfiguration fileConfiguration = new YamlConfiguration();
+        synchronized ( lock( file ) ) {
+            create( file, configuration );
             try {
                 fileConfiguration.load( file );
             } catch ( IOException | InvalidConfigurationException e ) {
                 plugin.getLogger().severe( "[ConfigurationLoader] Can't load " + configuration.value() + " file configuration." );
             }
-            final List<Field> fields;
-            if ( excludeFieldsWithoutManage ) {
-                fields = ReflectUtil.getAllFields( obj.getClass() ).stream()
-                        .filter( f -> f.isAnnotationPresent( Manage.class ) )
-                        .collect( Collectors.toList() );
+        }
+        final Map<ConfigurationBinding.Accessor, Object> values = new LinkedHashMap<>();
+        final ConfigurationBinding.Plan plan = binding.load( excludeFieldsWithoutManage );
+        plan.properties.forEach( property -> {
+            final String name = property.key;
+            Object value = fileConfiguration.get( name );
+            if ( value != null && property.catalog ) {
+                value = compileMessages( name, value, configuration, property.placeholders );
+                if ( value == null ) {
+                    return;
+                }
+            }
+            if ( value != null ) {
+                values.put( property, value );
             } else {
-                fields = ReflectUtil.getAllFields( obj.getClass() ).stream()
-                        .filter( f -> !f.isAnnotationPresent( Manage.class )
-                                || ( f.isAnnotationPresent( Manage.class )
-                                && f.getAnnotation( Manage.class ).load() )
-                        ).collect( Collectors.toList() );
-            }
-            List<Field> otherFile = fields.stream()
-                    .filter( f -> f.getType().isAnnotationPresent( Configuration.class ) )
-                    .collect( Collectors.toList() );
-            fields.removeAll( otherFile );
-            fields.forEach( field -> {
-                final Key key = field.getAnnotation( Key.class );
-                final String name = key != null ? key.value() : field.getName();
-                final Object value = fileConfiguration.get( name );
-                if ( value != null ) {
-                    try {
-                        FieldUtils.writeField( field, obj, value, true );
-                    } catch ( IllegalAccessException e ) {
-                        plugin.getLogger().warning( "[ConfigurationLoader] Can't set the value in field " + field.getName() + "." );
-                    }
+                plugin.getLogger().warning( "[ConfigurationLoader] Object get with key " + name + " in file " + configuration.value() + " is null." );
+            }
+        } );
+        plan.nested.forEach( nested -> values.put( nested, loadNow( newInstance( nested.field.getType() ) ) ) );
+        return values;
+    }
+
+    /**
+     * This method set the values read by {@link #read(Class)} in the fields of the object
+     *
+     * @param obj    Object to load
+     * @param values The values by field
+     */
+    private void apply( @NotNull Object obj, @NotNull Map<ConfigurationBinding.Accessor, Object> values ) {
+        values.forEach( ( field, value ) -> {
+            try {
+                field.set( obj, value );
+            } catch ( IllegalAccessException e ) {
+                plugin.getLogger().warning( "[ConfigurationLoader] Can't set the value in field " + field.field.getName() + "." );
+            }
+        } );
+    }
+
+    /**
+     * This method read the values to save of the fields of the object and of its nested configurations
+     *
+     * @param obj      Object to save
+     * @param detached True to copy the collections, maps and arrays, when the values are written later
+     * @return The values to save or null if the object isn't a configuration
+     */
+    @Nullable
+    private Snapshot snapshot( @NotNull Object obj, boolean detached ) {
+        Validate.notNull( obj, "[ConfigurationLoader] Trying to save a null object." );
+        final ConfigurationBinding binding = ConfigurationBinding.of( obj.getClass() );
+        final Configuration configuration = binding.configuration;
+        if ( configuration == null ) {
+            return null;
+        }
+        final Snapshot snapshot = new Snapshot( configuration, detached );
+        final ConfigurationBinding.Plan plan = binding.save( excludeFieldsWithoutManage );
+        plan.properties.forEach( property -> {
+            final String name = property.key;
+            try {
+                final Object value = property.get( obj );
+                if ( value instanceof MessageCatalog ) {
+                    // save the rich messages, with the invalid ones so they can be fixed
+                    snapshot.put( name, null );
+                    ( (MessageCatalog) value ).getSources().forEach( ( path, message ) -> snapshot.put( name + "." + path, message ) );
                 } else {
-                    plugin.getLogger().warning( "[ConfigurationLoader] Object get with key " + name + " in file " + configuration.value() + " is null." );
+                    snapshot.put( name, value );
                 }
-            } );
-            otherFile.forEach( field -> {
-                try {
-                    FieldUtils.writeField( field, obj, load( field.getType() ), true );
-                } catch ( IllegalAccessException e ) {
-                    plugin.getLogger().warning( "[ConfigurationLoader] Can't set the value in field " + field.getName() + "." );
+            } catch ( IllegalAccessException e ) {
+                plugin.getLogger().warning( "[ConfigurationLoader] Can't save the value of " + property.field.getName() + " in " + configuration.value() );
+            }
+
+        } );
+        plan.nested.forEach( nested -> {
+            try {
+                final Snapshot nestedSnapshot = snapshot( nested.get( obj ), detached );
+                if ( nestedSnapshot != null ) {
+                    snapshot.nested.add( nestedSnapshot );
                 }
-            } );
-        }
-        return obj;
+            } catch ( IllegalAccessException e ) {
+                plugin.getLogger().warning( "[ConfigurationLoader] Can't save the value of " + nested.field.getName() + " in " + configuration.value() );
+            }
+        } );
+        return snapshot;
     }
 
     /**
-     * This method will save all the field of the object in the file
-     * If {@link #excludeFieldsWithoutManageAnnotation()} has been called before
-     * All the fields without this annotation will be ignored
+     * This method write the values of a snapshot in the files of the configurations,
+     * the other keys of the files are kept. A file is skipped if the values are the same as
+     * at its last write and the file wasn't modified since. The modifications are detected by the
+     * modification time and the length of the file, an edit keeping the length within the resolution
+     * of the modification time of the file system (up to 2 seconds) isn't detected
      *
-     * @param obj Object to save
+     * @param snapshot Values to save
+     * @param force    True to wait until the content is stored on the disk, for the writes off the server thread
      */
-    public void save( @NotNull Object obj ) {
-        Validate.notNull( obj, "[ConfigurationLoader] Trying to save a null object." );
-        final Configuration configuration = obj.getClass().getAnnotation( Configuration.class );
-        if ( configuration != null ) {
-            final File file = create( configuration );
+    private void write( @NotNull Snapshot snapshot, boolean force ) {
+        snapshot.nested.forEach( nested -> write( nested, force ) );
+        final Configuration configuration = snapshot.configuration;
+        final File file = file( configuration );
+        synchronized ( lock( file ) ) {
+            final Written last = written.get( file );
+            if ( last != null && last.matches( file, snapshot.state ) ) {
+                return;
+            }
+            create( file, configuration );
             final FileConfiguration fileConfiguration = new YamlConfiguration();
             try {
                 fileConfiguration.load( file );
             } catch ( IOException | InvalidConfigurationException e ) {
                 plugin.getLogger().severe( "[ConfigurationLoader] Can't load " + configuration.value() + " file configuration." );
             }
-            final List<Field> fields;
-            if ( excludeFieldsWithoutManage ) {
-                fields = ReflectUtil.getAllFields( obj.getClass() ).stream()
-                        .filter( f -> f.isAnnotationPresent( Manage.class ) )
-                        .collect( Collectors.toList() );
-            } else {
-                fields = ReflectUtil.getAllFields( obj.getClass() ).stream()
-                        .filter( f -> !f.isAnnotationPresent( Manage.class )
-                                || ( f.isAnnotationPresent( Manage.class )
-                                && f.getAnnotation( Manage.class ).save() )
-                        ).collect( Collectors.toList() );
-            }
-            List<Field> otherFile = fields.stream()
-                    .filter( f -> f.getType().isAnnotationPresent( Configuration.class ) )
-                    .collect( Collectors.toList() );
-            fields.removeAll( otherFile );
-            fields.forEach( field -> {
-                final Key key = field.getAnnotation( Key.class );
-                final String name = key != null ? key.value() : field.getName();
-                try {
-                    fileConfiguration.set( name, FieldUtils.readField( field, obj, true ) );
-                } catch ( IllegalAccessException e ) {
-                    plugin.getLogger().warning( "[ConfigurationLoader] Can't save the value of " + field.getName() + " in " + configuration.value() );
+            snapshot.values.forEach( fileConfiguration::set );
+            try {
+                replace( file, fileConfiguration.saveToString(), force );
+                written.put( file, new Written( file, snapshot.state ) );
+            } catch ( IOException e ) {
+                plugin.getLogger().warning( "Can't save the FileConfiguration in the file" );
+            }
+        }
+    }
+
+    /**
+     * This method replace the content of the file atomically, the content is written in a temporary
+     * file of the same directory which is then moved over the file. The temporary file gets the
+     * permissions and the owner of the file, when the file system and the rights allow it
+     *
+     * @param file    File to replace
+     * @param content New content of the file
+     * @param force   True to wait until the content is stored on the disk before the move
+     * @throws IOException If the file can't be written
+     */
+    private static void replace( @NotNull File file, @NotNull String content, boolean force ) throws IOException {
+        final Path target = file.toPath();
+        final Path temp = Files.createTempFile( target.getParent(), file.getName(), ".tmp" );
+        try {
+            try ( FileChannel channel = FileChannel.open( temp, StandardOpenOption.WRITE ) ) {
+                final ByteBuffer buffer = ByteBuffer.wrap( content.getBytes( StandardCharsets.UTF_8 ) );
+                while ( buffer.hasRemaining() ) {
+                    channel.write( buffer );
                 }
+                if ( force ) {
+                    channel.force( true );
+                }
+            }
+            copyAttributes( target, temp );
+            try {
+                Files.move( temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+            } catch ( AtomicMoveNotSupportedException e ) {
+                Files.move( temp, target, StandardCopyOption.REPLACE_EXISTING );
+            }
+        } finally {
+            Files.deleteIfExists( temp );
+        }
+    }
 
-            } );
-            otherFile.forEach( field -> {
-                try {
-                    save( FieldUtils.readField( field, obj, true ) );
-                } catch ( IllegalAccessException e ) {
-                    plugin.getLogger().warning( "[ConfigurationLoader] Can't save the value of " + field.getName() + " in " + configuration.value() );
+    /**
+     * This method copy the permissions and the owner of the file to replace on the temporary file,
+     * the temporary files are only readable by their owner
+     *
+     * @param target File to replace
+     * @param temp   Temporary file
+     */
+    private static void copyAttributes( @NotNull Path target, @NotNull Path temp ) {
+        if ( !Files.exists( target ) ) {
+            return;
+        }
+        try {
+            Files.setPosixFilePermissions( temp, Files.getPosixFilePermissions( target ) );
+        } catch ( UnsupportedOperationException | IOException e ) {
+            // not a POSIX file system, the default permissions are kept
+        }
+        try {
+            final UserPrincipal owner = Files.getOwner( target );
+            if ( !owner.equals( Files.getOwner( temp ) ) ) {
+                Files.setOwner( temp, owner );
+            }
+        } catch ( UnsupportedOperationException | IOException e ) {
+            // the owner can only be changed by a privileged user
+        }
+    }
+
+    /**
+     * This method delay the write of a snapshot, replacing the snapshot of the same file
+     * waiting for its write
+     *
+     * @param snapshot Values to save
+     * @return A future completed once the file is written
+     */
+    @NotNull
+    private CompletableFuture<Void> defer( @NotNull Snapshot snapshot ) {
+        return deferred.compute( file( snapshot.configuration ), ( file, pending ) -> {
+            if ( pending != null ) {
+                pending.snapshot = snapshot;
+                return pending;
+            }
+            final Deferred created = new Deferred( snapshot );
+            CompletableFuture.delayedExecutor( writeBehind, TimeUnit.MILLISECONDS, executor() ).execute( () -> flush( file, created ) );
+            return created;
+        } ).future;
+    }
+
+    /**
+     * This method submit now the delayed save of the file, so it is written before the next operations on the file
+     *
+     * @param file File of the delayed save
+     */
+    private void flushPending( @NotNull File file ) {
+        final Deferred pending = deferred.get( file );
+        if ( pending != null ) {
+            flush( file, pending );
+        }
+    }
+
+    /**
+     * This method submit the write of a delayed snapshot, if it wasn't already submitted
+     *
+     * @param file    File of the snapshot
+     * @param pending The delayed snapshot
+     */
+    private void flush( @NotNull File file, @NotNull Deferred pending ) {
+        if ( deferred.remove( file, pending ) ) {
+            submit( file, () -> {
+                write( pending.snapshot, true );
+                return null;
+            } ).whenComplete( ( result, e ) -> {
+                if ( e != null ) {
+                    pending.future.completeExceptionally( e );
+                } else {
+                    pending.future.complete( null );
                 }
             } );
+        }
+    }
+
+    /**
+     * This method run a read or a write of a file on the executor, after the ones of the same file submitted before
+     *
+     * @param file File read or written
+     * @param task Operation on the file
+     * @param <R>  Type of the result
+     * @return The result of the operation, completed on the executor
+     */
+    @NotNull
+    private <R> CompletableFuture<R> submit( @NotNull File file, @NotNull Supplier<R> task ) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        final CompletableFuture<?> previous = queue.put( file, future );
+        final CompletableFuture<?> ready = previous != null ? previous.handle( ( result, e ) -> null ) : CompletableFuture.completedFuture( null );
+        ready.thenRunAsync( () -> {
             try {
-                fileConfiguration.save( file );
-            } catch ( IOException e ) {
-                plugin.getLogger().warning( "Can't save the FileConfiguration in the file" );
+                future.complete( task.get() );
+            } catch ( Throwable e ) {
+                future.completeExceptionally( e );
+            }
+        }, executor() ).exceptionally( e -> {
+            // rejected by the executor
+            future.completeExceptionally( e );
+            return null;
+        } );
+        future.whenComplete( ( result, e ) -> queue.remove( file, future ) );
+        return future;
+    }
+
+    /**
+     * This method run a read or a write of a file on this thread, after the ones of the same file submitted before
+     *
+     * @param file File read or written
+     * @param task Operation on the file
+     * @param <R>  Type of the result
+     * @return The result of the operation
+     */
+    private <R> R await( @NotNull File file, @NotNull Supplier<R> task ) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        final CompletableFuture<?> previous = queue.put( file, future );
+        try {
+            if ( previous != null ) {
+                previous.handle( ( result, e ) -> null ).join();
             }
+            final R result = task.get();
+            future.complete( result );
+            return result;
+        } catch ( RuntimeException | Error e ) {
+            future.completeExceptionally( e );
+            throw e;
+        } finally {
+            queue.remove( file, future );
+        }
+    }
+
+    @NotNull
+    private synchronized Executor executor() {
+        if ( executor == null ) {
+            executor = ownExecutor = Executors.newSingleThreadExecutor( runnable -> {
+                final Thread thread = new Thread( runnable, "FrostLib Configuration Thread" );
+                thread.setDaemon( true );
+                return thread;
+            } );
+        }
+        return executor;
+    }
+
+    @NotNull
+    private Object lock( @NotNull File file ) {
+        return locks.computeIfAbsent( file, key -> new Object() );
+    }
+
+    /**
+     * This method compile all the messages of a section into a {@link MessageCatalog}
+     * The invalid messages are reported now instead of when they are sent
+     *
+     * @param name          Key of the section
+     * @param value         Value of the section in the file
+     * @param configuration The configuration annotation
+     * @param placeholders  Placeholders declared for the messages, null to accept any name
+     * @return The catalog or null if the value isn't a section
+     */
+    @Nullable
+    private MessageCatalog compileMessages( @NotNull String name, @NotNull Object value, @NotNull Configuration configuration,
+                                            @Nullable List<String> placeholders ) {
+        if ( !( value instanceof ConfigurationSection ) ) {
+            plugin.getLogger().warning( "[ConfigurationLoader] Object get with key " + name + " in file " + configuration.value() + " is not a section of messages." );
+            return null;
         }
+        final Map<String, String> messages = new LinkedHashMap<>();
+        ( (ConfigurationSection) value ).getValues( true ).forEach( ( key, message ) -> {
+            if ( message instanceof String ) {
+                messages.put( key, (String) message );
+            }
+        } );
+        final MessageCatalog catalog = MessageCatalog.compile( messages, placeholders );
+        catalog.getErrors().forEach( ( key, error ) -> plugin.getLogger().warning(
+                "[ConfigurationLoader] Invalid message " + name + "." + key + " in file " + configuration.value() + ": " + error ) );
+        return catalog;
     }
 
     /**
      * This method create a {@link File} instance depending of the {@link Configuration}
+     *
+     * @param configuration The configuration annotation
+     * @return The file of the configuration
+     */
+    @NotNull
+    private File file( @NotNull Configuration configuration ) {
+        String name = configuration.value().endsWith( ".yml" ) ? configuration.value() : configuration.value() + ".yml";
+        return new File( plugin.getDataFolder() + "/" + configuration.path(), name ).getAbsoluteFile();
+    }
+
+    /**
      * If the file doesn't exists he will be created (blank or from resource) according to
      * the Configuration parameter values
      *
+     * @param file          The file of the configuration
      * @param configuration The configuration annotation
      * @return The file created
      */
     @NotNull
-    private File create( @NotNull Configuration configuration ) {
-        String name = configuration.value().endsWith( ".yml" ) ? configuration.value() : configuration.value() + ".yml";
-        final File file = new File( plugin.getDataFolder() + "/" + configuration.path(), name );
+    private File create( @NotNull File file, @NotNull Configuration configuration ) {
         boolean created = file.getParentFile().exists();
         if ( !created || !file.exists() )
             created = file.getParentFile().mkdirs() && file.exists();
@@ -237,4 +743,123 @@ public class ConfigurationLoader extends Loader {
         return file;
     }
 
+    /**
+     * Values of the fields of a configuration to save, read on the thread calling the save
+     */
+    private static final class Snapshot {
+
+        private final Configuration configuration;
+        private final boolean detached;
+        private final Map<String, Object> values = new LinkedHashMap<>();
+        private final List<Snapshot> nested = new ArrayList<>();
+
+        /**
+         * Copy of the values, compared with the values of the last write
+         */
+        private final Map<String, Object> state = new LinkedHashMap<>();
+
+        private Snapshot( @NotNull Configuration configuration, boolean detached ) {
+            this.configuration = configuration;
+            this.detached = detached;
+        }
+
+        private void put( @NotNull String key, @Nullable Object value ) {
+            values.put( key, detached ? copy( value, false ) : value );
+            state.put( key, copy( value, true ) );
+        }
+
+        /**
+         * Copy the value so its later modifications aren't seen by the write or by the comparison.
+         * For the comparison the serializable objects are replaced by their serialized form, and the other
+         * mutable objects by an object equal to nothing since their modifications in place can't be detected
+         *
+         * @param value Value to copy
+         * @param state True to copy the value for the comparison, false to copy it for the write
+         * @return The copy, the value itself if it is immutable, or for the write if it isn't a collection, a map or an array
+         */
+        @Nullable
+        private static Object copy( @Nullable Object value, boolean state ) {
+            if ( state && value instanceof ConfigurationSerializable ) {
+                return copy( ( (ConfigurationSerializable) value ).serialize(), true );
+            }
+            if ( value instanceof ConfigurationSection ) {
+                return copy( ( (ConfigurationSection) value ).getValues( false ), state );
+            }
+            if ( value instanceof Map ) {
+                final Map<Object, Object> copy = new LinkedHashMap<>();
+                ( (Map<?, ?>) value ).forEach( ( key, element ) -> copy.put( key, copy( element, state ) ) );
+                return copy;
+            }
+            if ( value instanceof Collection ) {
+                final Collection<Object> copy = value instanceof Set ? new LinkedHashSet<>() : new ArrayList<>();
+                ( (Collection<?>) value ).forEach( element -> copy.add( copy( element, state ) ) );
+                return copy;
+            }
+            if ( value != null && value.getClass().isArray() ) {
+                final int length = Array.getLength( value );
+                if ( state ) {
+                    final List<Object> copy = new ArrayList<>( length );
+                    for ( int i = 0; i < length; i++ ) {
+                        copy.add( copy( Array.get( value, i ), true ) );
+                    }
+                    return copy;
+                }
+                final Object copy = Array.newInstance( value.getClass().getComponentType(), length );
+                for ( int i = 0; i < length; i++ ) {
+                    Array.set( copy, i, copy( Array.get( value, i ), false ) );
+                }
+                return copy;
+            }
+            if ( !state || value == null || isImmutable( value ) ) {
+                return value;
+            }
+            // never equal to the previous state, the value is always written
+            return new Object();
+        }
+
+        private static boolean isImmutable( @NotNull Object value ) {
+            return value instanceof String || value instanceof Boolean || value instanceof Character || value instanceof Enum
+                    || value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof Float
+                    || value instanceof Short || value instanceof Byte || value instanceof BigInteger || value instanceof BigDecimal
+                    || value instanceof UUID;
+        }
+
+    }
+
+    /**
+     * State of a file after its last write by this loader, the file is considered unmodified while
+     * its modification time and its length are the same
+     */
+    private static final class Written {
+
+        private final Map<String, Object> state;
+        private final long modified;
+        private final long length;
+
+        private Written( @NotNull File file, @NotNull Map<String, Object> state ) {
+            this.state = state;
+            this.modified = file.lastModified();
+            this.length = file.length();
+        }
+
+        private boolean matches( @NotNull File file, @NotNull Map<String, Object> state ) {
+            return modified == file.lastModified() && length == file.length() && this.state.equals( state );
+        }
+
+    }
+
+    /**
+     * Save delayed by the write-behind mode
+     */
+    private static final class Deferred {
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile Snapshot snapshot;
+
+        private Deferred( @NotNull Snapshot snapshot ) {
+            this.snapshot = snapshot;
+        }
+
+    }
+
 }
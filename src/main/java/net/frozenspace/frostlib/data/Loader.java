@@ -48,13 +48,23 @@ public abstract class Loader {
     @NotNull
     public <T> T load( @NotNull Class<T> clazz ) {
         Validate.notNull( clazz, "[Loader] Trying to load a null class." );
-        T obj;
+        return load( newInstance( clazz ) );
+    }
+
+    /**
+     * Create a new instance of the class with its constructor without parameters
+     *
+     * @param clazz The class to instantiate
+     * @param <T>   The type of this class
+     * @return The new instance
+     */
+    @NotNull
+    protected static <T> T newInstance( @NotNull Class<T> clazz ) {
         try {
-            obj = clazz.getConstructor().newInstance();
+            return clazz.getConstructor().newInstance();
         } catch (InstantiationException | IllegalAccessException | NoSuchMethodException | InvocationTargetException e ) {
             throw new RuntimeException( "[Loader] Can't instantiate " + clazz.getSimpleName() + "." );
         }
-        return load( obj );
     }
 
     @NotNull
@@ -0,0 +1,56 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Check that the size estimated for a template matches the json written by Gson
+ *
+ * @author Frozen
+ */
+public class ChatPayloadTest {
+
+    // Gson escapes the html chars as unicode escapes and uses the short escapes for \n and \t
+    private static final String URL = "https://x/?a=b&c=d\n\t\u0001";
+    private static final String JSON = "{\"clickEvent\":{\"action\":\"open_url\",\"value\":"
+            + "\"https://x/?a\\u003db\\u0026c\\u003dd\\n\\t\\u0001\"},\"text\":\"x\"}";
+
+    @Test
+    public void clickValuesAreEscapedLikeGson() {
+        final MessageTemplate template = MessageTemplate.compile( "<click:open_url:\"<url>\">x</click>" );
+        assertEquals( JSON.length(), ChatPayload.estimate( template, "url", URL ) );
+        assertEquals( JSON.length(), ChatPayload.estimate( template.render( "url", URL ) ) );
+    }
+
+    @Test
+    public void staticClickValuesAreEscapedLikeGson() {
+        final MessageTemplate template = MessageTemplate.compile( "<click:open_url:\"https://x/?a=b&c=d\">x<y></click>" );
+        final int expected = ChatPayload.estimate( template.render( "y", "'<>'" ) );
+        assertEquals( expected, ChatPayload.estimate( template, "y", "'<>'" ) );
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Check that the cache never returns components of custom tags resolved for a previous parse
+ *
+ * @author Frozen
+ */
+public class ComponentCacheTest {
+
+    private int calls = 0;
+
+    @After
+    public void unregister() {
+        ComponentParser.unregisterTag( "count" );
+    }
+
+    @Test
+    public void plainMessagesAreShared() {
+        final ComponentCache cache = new ComponentCache( 10 );
+        assertSame( cache.parseFormat( "<red>hello" ), cache.parseFormat( "<red>hello" ) );
+        assertEquals( 1, cache.size() );
+    }
+
+    @Test
+    public void messagesWithTagsAreParsedEachTime() {
+        ComponentParser.registerTag( "count", argument -> new BaseComponent[]{ new TextComponent( "" + ++calls ) } );
+        final ComponentCache cache = new ComponentCache( 10 );
+        assertEquals( "1", cache.parseFormat( "a<count>" )[1].toPlainText() );
+        assertEquals( "2", cache.parseFormat( "a<count>" )[1].toPlainText() );
+        assertEquals( "3", cache.parseFormat( "<hover:show_text:\"<count>\">a" )[0].getHoverEvent().getValue()[0].toPlainText() );
+        assertEquals( "4", cache.parseFormat( "<hover:show_text:\"<count>\">a" )[0].getHoverEvent().getValue()[0].toPlainText() );
+        assertEquals( 0, cache.size() );
+    }
+
+    @Test
+    public void registrationsClearTheCache() {
+        final ComponentCache cache = new ComponentCache( 10 );
+        cache.parseFormat( "a<count>" );
+        assertEquals( 1, cache.size() );
+        ComponentParser.registerTag( "count", new TextComponent( "x" ) );
+        assertEquals( "x", cache.parseFormat( "a<count>" )[1].toPlainText() );
+    }
+
+    @Test
+    public void eventsAreNotSharedBetweenParses() {
+        final String message = "<hover:show_text:\"<red>tip\"><click:run_command:/spawn>a";
+        final BaseComponent first = ComponentParser.parseFormat( message )[0];
+        final BaseComponent second = ComponentParser.parseFormat( message )[0];
+        assertNotSame( first.getHoverEvent(), second.getHoverEvent() );
+        assertNotSame( first.getHoverEvent().getValue()[0], second.getHoverEvent().getValue()[0] );
+        assertNotSame( first.getClickEvent(), second.getClickEvent() );
+        ( (TextComponent) first.getHoverEvent().getValue()[0] ).setText( "changed" );
+        assertEquals( "tip", second.getHoverEvent().getValue()[0].toPlainText() );
+        assertEquals( "tip", ComponentParser.parseFormat( message )[0].getHoverEvent().getValue()[0].toPlainText() );
+    }
+
+}
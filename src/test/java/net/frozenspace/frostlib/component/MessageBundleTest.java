@@ -0,0 +1,62 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Check that the chains of locales follow the modifications of the bundle
+ *
+ * @author Frozen
+ */
+public class MessageBundleTest {
+
+    @Test
+    public void missingMessagesUseTheFallbacks() {
+        final MessageBundle bundle = new MessageBundle( "en_us" )
+                .add( "en_us", Collections.singletonMap( "hello", "Hello" ) )
+                .add( "fr_fr", Collections.singletonMap( "bye", "Au revoir" ) );
+        assertEquals( "Au revoir", bundle.get( "fr_ca", "bye" ).getSource() );
+        assertEquals( "Hello", bundle.get( "fr_ca", "hello" ).getSource() );
+        assertNull( bundle.get( "fr_ca", "unknown" ) );
+    }
+
+    @Test
+    public void modificationsReplaceTheComputedChains() {
+        final MessageBundle bundle = new MessageBundle( "en_us" )
+                .add( "en_us", Collections.singletonMap( "hello", "Hello" ) );
+        assertEquals( "Hello", bundle.get( "fr_fr", "hello" ).getSource() );
+        bundle.add( "fr_fr", Collections.singletonMap( "hello", "Bonjour" ) );
+        assertEquals( "Bonjour", bundle.get( "fr_fr", "hello" ).getSource() );
+        assertEquals( "Hello", bundle.get( "de_de", "hello" ).getSource() );
+        bundle.fallback( "de_de", "fr_fr" );
+        assertEquals( "Bonjour", bundle.get( "de_de", "hello" ).getSource() );
+    }
+
+}
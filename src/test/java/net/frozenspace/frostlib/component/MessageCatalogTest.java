@@ -0,0 +1,101 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.TextComponent;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check that the mistakes in the messages of a catalog are reported when it is compiled
+ *
+ * @author Frozen
+ */
+public class MessageCatalogTest {
+
+    @Test
+    public void validMessagesAreCompiled() {
+        final MessageCatalog catalog = MessageCatalog.compile( messages(
+                "join", "<yellow><player> joined",
+                "closed", "<bold><italic>a</bold>b</italic>",
+                "click", "<click:run_command:\"/tp <player>\">here</click>",
+                "hover", "<hover:show_text:\"<red>Hi</red>\">hover</hover>" ), Collections.singletonList( "player" ) );
+        assertEquals( Collections.emptyMap(), catalog.getErrors() );
+        assertEquals( 4, catalog.size() );
+    }
+
+    @Test
+    public void errorsNameTheKeyAndTheTag() {
+        final MessageCatalog catalog = MessageCatalog.compile( messages(
+                "typo", "<gren>text",
+                "stray", "text</red>",
+                "mismatch", "<red>text</blue>",
+                "unknown", "text</gren>",
+                "action", "<click:nope:x>text",
+                "value", "<click:run_command>text",
+                "hover", "<hover:show_nothing:\"x\">text",
+                "nested", "<hover:show_text:\"</red>\">text" ), Collections.singletonList( "player" ) );
+        assertEquals( "typo: unknown tag <gren>", catalog.getErrors().get( "typo" ) );
+        assertEquals( "stray: closing tag without opening tag </red>", catalog.getErrors().get( "stray" ) );
+        assertEquals( "mismatch: closing tag without opening tag </blue>", catalog.getErrors().get( "mismatch" ) );
+        assertEquals( "unknown: unknown closing tag </gren>", catalog.getErrors().get( "unknown" ) );
+        assertEquals( "action: invalid click action <click:nope:x>", catalog.getErrors().get( "action" ) );
+        assertEquals( "value: click tag without value <click:run_command>", catalog.getErrors().get( "value" ) );
+        assertEquals( "hover: invalid hover action <hover:show_nothing:\"x\">", catalog.getErrors().get( "hover" ) );
+        assertEquals( "nested: closing tag without opening tag </red>", catalog.getErrors().get( "nested" ) );
+        assertEquals( 0, catalog.size() );
+    }
+
+    @Test
+    public void undeclaredPlaceholdersAreAccepted() {
+        final MessageCatalog catalog = MessageCatalog.compile( messages( "join", "<yellow><player> joined" ) );
+        assertTrue( catalog.contains( "join" ) );
+    }
+
+    @Test
+    public void registeredTagsAreAccepted() {
+        ComponentParser.registerTag( "rank", new TextComponent( "Admin" ) );
+        try {
+            final MessageCatalog catalog = MessageCatalog.compile( messages( "rank", "<rank> <player>" ), Collections.singletonList( "player" ) );
+            assertTrue( catalog.contains( "rank" ) );
+        } finally {
+            ComponentParser.unregisterTag( "rank" );
+        }
+    }
+
+    private static Map<String, String> messages( String... entries ) {
+        final Map<String, String> messages = new LinkedHashMap<>();
+        for ( int i = 0; i < entries.length; i += 2 ) {
+            messages.put( entries[i], entries[i + 1] );
+        }
+        return messages;
+    }
+
+}
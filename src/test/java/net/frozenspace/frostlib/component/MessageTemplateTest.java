@@ -0,0 +1,113 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Check that the templates resolve the custom tags when they are rendered
+ *
+ * @author Frozen
+ */
+public class MessageTemplateTest {
+
+    @After
+    public void unregister() {
+        ComponentParser.unregisterTag( "rank" );
+        ComponentParser.unregisterTag( "late" );
+    }
+
+    @Test
+    public void tagsUseTheResolverRegisteredAtRender() {
+        ComponentParser.registerTag( "rank", new TextComponent( "Admin" ) );
+        final MessageTemplate template = MessageTemplate.compile( "<red><player> <rank>" );
+        assertEquals( "Steve Admin", plain( template.render( "player", "Steve" ) ) );
+        ComponentParser.registerTag( "rank", new TextComponent( "Mod" ) );
+        assertEquals( "Steve Mod", plain( template.render( "player", "Steve" ) ) );
+        ComponentParser.unregisterTag( "rank" );
+        assertEquals( "Steve ", plain( template.render( "player", "Steve" ) ) );
+    }
+
+    @Test
+    public void tagsRegisteredAfterTheCompilation() {
+        final MessageTemplate template = MessageTemplate.compile( "a<late>b<late:x>c" );
+        assertEquals( "abc", plain( template.render() ) );
+        ComponentParser.registerTag( "late", argument -> new BaseComponent[]{ new TextComponent( "[" + argument + "]" ) } );
+        assertEquals( "a[null]b[x]c", plain( template.render() ) );
+        assertEquals( "avalueb[x]c", plain( template.render( "late", "value" ) ) );
+    }
+
+    @Test
+    public void hoversWithTagsAreRenderedEachTime() {
+        ComponentParser.registerTag( "rank", new TextComponent( "Admin" ) );
+        final MessageTemplate template = MessageTemplate.compile( "<hover:show_text:\"<gold><rank>\">name</hover>" );
+        assertEquals( "Admin", hover( template.render() ) );
+        ComponentParser.registerTag( "rank", new TextComponent( "Mod" ) );
+        assertEquals( "Mod", hover( template.render() ) );
+    }
+
+    @Test
+    public void resolveCallsTheResolversImmediately() {
+        final Thread caller = Thread.currentThread();
+        final int[] calls = { 0 };
+        final Placeholders placeholders = new Placeholders().register( "name", () -> {
+            assertEquals( caller, Thread.currentThread() );
+            calls[0]++;
+            return "Steve";
+        } );
+        final MessageTemplate template = MessageTemplate.compile( "<name> <hover:show_text:\"<name>\">x</hover>" );
+        final MessageTemplate.Values values = template.resolve( null, placeholders );
+        assertEquals( 1, calls[0] );
+        assertEquals( "Steve x", plain( template.render( values ) ) );
+        assertEquals( 1, calls[0] );
+    }
+
+    @Test
+    public void parseFormatWithPlaceholdersReusesTheTemplate() {
+        final Placeholders placeholders = new Placeholders().register( "name", () -> "<red>Steve" );
+        assertEquals( "<red>Steve ", plain( ComponentParser.parseFormat( "<name> <late>", null, placeholders ) ) );
+        ComponentParser.registerTag( "late", new TextComponent( "Late" ) );
+        assertEquals( "<red>Steve Late", plain( ComponentParser.parseFormat( "<name> <late>", null, placeholders ) ) );
+    }
+
+    private static String plain( BaseComponent[] components ) {
+        final StringBuilder sb = new StringBuilder();
+        for ( BaseComponent component : components ) {
+            sb.append( component.toPlainText() );
+        }
+        return sb.toString();
+    }
+
+    private static String hover( BaseComponent[] components ) {
+        assertNotNull( components[0].getHoverEvent() );
+        return plain( components[0].getHoverEvent().getValue() );
+    }
+
+}
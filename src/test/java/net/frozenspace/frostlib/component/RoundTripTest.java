@@ -0,0 +1,399 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.HoverEvent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Check that random styled components survive a round trip through {@link ComponentSerializer}
+ * and that every way of parsing a rich message produces the same message.
+ * The messages are compared char by char with their effective formatting, since the serializer
+ * doesn't keep the structure of the components
+ *
+ * @author Frozen
+ */
+public class RoundTripTest {
+
+    private static final int RUNS = 1000;
+
+    private static final ChatColor[] COLORS = Arrays.copyOf( ChatColor.values(), ChatColor.WHITE.ordinal() + 1 );
+    private static final ClickEvent.Action[] CLICK_ACTIONS = {
+            ClickEvent.Action.OPEN_URL, ClickEvent.Action.RUN_COMMAND, ClickEvent.Action.SUGGEST_COMMAND
+    };
+    // no tag delimiters, no quotes since the hover texts are quoted, and no page delimiter
+    private static final char[] ALPHABET = "abcxyzABC019 .,!?-_/:&='\n\t\u0001".toCharArray();
+    private static final char DELIMITER = '|';
+
+    @Test
+    public void parseSerialized() {
+        for ( int seed = 0; seed < RUNS; seed++ ) {
+            final BaseComponent[] components = generate( new Random( seed ), true );
+            final String richMessage = ComponentSerializer.serialize( components );
+            assertEquals( seed + ": " + richMessage, flatten( components ), flatten( ComponentParser.parseFormat( richMessage ) ) );
+        }
+    }
+
+    @Test
+    public void equalEventsAreNotRepeated() {
+        for ( int seed = 0; seed < RUNS; seed++ ) {
+            final BaseComponent[] components = generate( new Random( seed ), true );
+            // the same events, but not shared by the components
+            final BaseComponent[] copies = new BaseComponent[components.length];
+            for ( int i = 0; i < components.length; i++ ) {
+                copies[i] = components[i].duplicate();
+                final HoverEvent hover = components[i].getHoverEvent();
+                if ( hover != null ) {
+                    final BaseComponent[] value = new BaseComponent[hover.getValue().length];
+                    for ( int j = 0; j < value.length; j++ ) {
+                        value[j] = hover.getValue()[j].duplicate();
+                    }
+                    copies[i].setHoverEvent( new HoverEvent( hover.getAction(), value ) );
+                }
+                final ClickEvent click = components[i].getClickEvent();
+                if ( click != null ) {
+                    copies[i].setClickEvent( new ClickEvent( click.getAction(), click.getValue() ) );
+                }
+            }
+            assertEquals( String.valueOf( seed ), ComponentSerializer.serialize( components ), ComponentSerializer.serialize( copies ) );
+        }
+    }
+
+    @Test
+    public void templates() {
+        for ( int seed = 0; seed < RUNS; seed++ ) {
+            final String richMessage = ComponentSerializer.serialize( generate( new Random( seed ), true ) );
+            final String expected = flatten( ComponentParser.parseFormat( richMessage ) );
+            assertEquals( seed + ": " + richMessage, expected, flatten( MessageTemplate.compile( richMessage ).render() ) );
+            assertEquals( seed + ": " + richMessage, expected, flatten( MessageTemplate.compile( richMessage, true ).render() ) );
+        }
+    }
+
+    @Test
+    public void coalesce() {
+        for ( int seed = 0; seed < RUNS; seed++ ) {
+            final BaseComponent[] components = generate( new Random( seed ), true );
+            final BaseComponent[] parsed = ComponentParser.parseFormat( ComponentSerializer.serialize( components ) );
+            assertEquals( String.valueOf( seed ), flatten( components ), flatten( ComponentParser.coalesce( components ) ) );
+            assertEquals( String.valueOf( seed ), flatten( parsed ), flatten( ComponentParser.coalesce( parsed ) ) );
+        }
+    }
+
+    @Test
+    public void parseStream() {
+        for ( int seed = 0; seed < RUNS; seed++ ) {
+            final Random random = new Random( seed );
+            final String richMessage = ComponentSerializer.serialize( generate( random, true ) );
+            // split the message between two tags or inside a text
+            final StringBuilder paged = new StringBuilder();
+            int depth = 0;
+            for ( int i = 0; i < richMessage.length(); i++ ) {
+                final char c = richMessage.charAt( i );
+                if ( depth == 0 && random.nextInt( 8 ) == 0 ) {
+                    paged.append( DELIMITER );
+                }
+                if ( c == '<' ) {
+                    depth++;
+                } else if ( c == '>' ) {
+                    depth--;
+                }
+                paged.append( c );
+            }
+            final List<BaseComponent> pages = new ArrayList<>();
+            ComponentParser.parseStream( paged, DELIMITER, page -> pages.addAll( Arrays.asList( page ) ) );
+            assertEquals( seed + ": " + paged, flatten( ComponentParser.parseFormat( richMessage ) ),
+                    flatten( pages.toArray( new BaseComponent[0] ) ) );
+        }
+    }
+
+    @Test
+    public void toJson() {
+        for ( int seed = 0; seed < RUNS; seed++ ) {
+            final String richMessage = ComponentSerializer.serialize( generate( new Random( seed ), true ) );
+            final String json = net.md_5.bungee.chat.ComponentSerializer.toString( ComponentParser.parseFormat( richMessage ) );
+            assertEquals( seed + ": " + richMessage, new Json( json ).read(), new Json( ComponentParser.toJson( richMessage ) ).read() );
+        }
+    }
+
+    @Test
+    public void colorsAreWrittenWithTheirJsonName() {
+        // magic is a color tag, written "obfuscated" by bungee
+        for ( String richMessage : new String[]{ "<magic>secret", "<underline>a</underline><red>b" } ) {
+            final String json = net.md_5.bungee.chat.ComponentSerializer.toString( ComponentParser.parseFormat( richMessage ) );
+            assertEquals( richMessage, new Json( json ).read(), new Json( ComponentParser.toJson( richMessage ) ).read() );
+            final int size = Json.length( new Json( json ).read() );
+            assertEquals( richMessage, size, ChatPayload.estimate( ComponentParser.parseFormat( richMessage ) ) );
+            assertEquals( richMessage, size, ChatPayload.estimate( MessageTemplate.compile( richMessage ) ) );
+        }
+    }
+
+    @Test
+    public void estimate() {
+        for ( int seed = 0; seed < RUNS; seed++ ) {
+            final String richMessage = ComponentSerializer.serialize( generate( new Random( seed ), true ) );
+            final BaseComponent[] components = ComponentParser.parseFormat( richMessage );
+            final int size = Json.length( new Json( net.md_5.bungee.chat.ComponentSerializer.toString( components ) ).read() );
+            assertEquals( seed + ": " + richMessage, size, ChatPayload.estimate( components ) );
+            assertEquals( seed + ": " + richMessage, size, ChatPayload.estimate( MessageTemplate.compile( richMessage ) ) );
+            final MessageTemplate coalesced = MessageTemplate.compile( richMessage, true );
+            assertEquals( seed + ": " + richMessage, ChatPayload.estimate( coalesced.render() ), ChatPayload.estimate( coalesced ) );
+        }
+    }
+
+    /**
+     * Generate random text components, with extras inheriting their formatting
+     *
+     * @param random Source of the components
+     * @param events True to add click and hover events
+     * @return The components
+     */
+    private static BaseComponent[] generate( Random random, boolean events ) {
+        final BaseComponent[] components = new BaseComponent[1 + random.nextInt( 6 )];
+        ClickEvent click = null;
+        HoverEvent hover = null;
+        for ( int i = 0; i < components.length; i++ ) {
+            final TextComponent component = new TextComponent( text( random ) );
+            if ( random.nextInt( 3 ) > 0 ) {
+                component.setColor( COLORS[random.nextInt( COLORS.length )] );
+            }
+            component.setBold( random.nextInt( 4 ) == 0 );
+            component.setItalic( random.nextInt( 4 ) == 0 );
+            component.setUnderlined( random.nextInt( 4 ) == 0 );
+            component.setStrikethrough( random.nextInt( 4 ) == 0 );
+            component.setObfuscated( random.nextInt( 4 ) == 0 );
+            if ( events ) {
+                // the events are often shared by consecutive components, like the parsed ones
+                if ( click == null || random.nextInt( 3 ) == 0 ) {
+                    click = random.nextBoolean() ? null
+                            : new ClickEvent( CLICK_ACTIONS[random.nextInt( CLICK_ACTIONS.length )], text( random ) );
+                }
+                if ( hover == null || random.nextInt( 3 ) == 0 ) {
+                    hover = random.nextBoolean() ? null : new HoverEvent( HoverEvent.Action.SHOW_TEXT, generate( random, false ) );
+                }
+                component.setClickEvent( click );
+                component.setHoverEvent( hover );
+            }
+            for ( int extras = random.nextInt( 4 ) - 1; extras > 0; extras-- ) {
+                component.addExtra( text( random ) );
+            }
+            components[i] = component;
+        }
+        return components;
+    }
+
+    private static String text( Random random ) {
+        final char[] chars = new char[1 + random.nextInt( 8 )];
+        for ( int i = 0; i < chars.length; i++ ) {
+            chars[i] = ALPHABET[random.nextInt( ALPHABET.length )];
+        }
+        return new String( chars );
+    }
+
+    /**
+     * Describe each char of the message with its effective formatting
+     *
+     * @param components Components of the message
+     * @return One line per char
+     */
+    private static String flatten( BaseComponent[] components ) {
+        final StringBuilder sb = new StringBuilder();
+        for ( BaseComponent component : components ) {
+            flatten( component, null, null, sb );
+        }
+        return sb.toString();
+    }
+
+    private static void flatten( BaseComponent component, ClickEvent click, HoverEvent hover, StringBuilder sb ) {
+        if ( component.getClickEvent() != null ) {
+            click = component.getClickEvent();
+        }
+        if ( component.getHoverEvent() != null ) {
+            hover = component.getHoverEvent();
+        }
+        final String text = ( (TextComponent) component ).getText();
+        for ( int i = 0; i < text.length(); i++ ) {
+            sb.append( text.charAt( i ) ).append( ' ' ).append( component.getColor() )
+                    .append( component.isBold() ? 'b' : '-' )
+                    .append( component.isItalic() ? 'i' : '-' )
+                    .append( component.isUnderlined() ? 'u' : '-' )
+                    .append( component.isStrikethrough() ? 's' : '-' )
+                    .append( component.isObfuscated() ? 'o' : '-' );
+            if ( click != null ) {
+                sb.append( " click " ).append( click.getAction() ).append( ' ' ).append( click.getValue() );
+            }
+            if ( hover != null ) {
+                sb.append( " hover " ).append( hover.getAction() ).append( " [" )
+                        .append( flatten( hover.getValue() ).replace( "\n", "\n  " ) ).append( ']' );
+            }
+            sb.append( '\n' );
+        }
+        if ( component.getExtra() != null ) {
+            for ( BaseComponent extra : component.getExtra() ) {
+                flatten( extra, click, hover, sb );
+            }
+        }
+    }
+
+    /**
+     * Read a json value as maps, lists, strings and booleans, so two json are equal whatever
+     * the order of the fields and the escaping of the strings
+     */
+    private static final class Json {
+
+        private final String json;
+        private int index = 0;
+
+        Json( String json ) {
+            this.json = json;
+        }
+
+        Object read() {
+            final char c = json.charAt( index );
+            if ( c == '{' ) {
+                final Map<String, Object> map = new HashMap<>();
+                index++;
+                while ( json.charAt( index ) != '}' ) {
+                    final String key = string();
+                    expect( ':' );
+                    map.put( key, read() );
+                    if ( json.charAt( index ) == ',' ) {
+                        index++;
+                    }
+                }
+                index++;
+                return map;
+            }
+            if ( c == '[' ) {
+                final List<Object> list = new ArrayList<>();
+                index++;
+                while ( json.charAt( index ) != ']' ) {
+                    list.add( read() );
+                    if ( json.charAt( index ) == ',' ) {
+                        index++;
+                    }
+                }
+                index++;
+                return list;
+            }
+            if ( c == '"' ) {
+                return string();
+            }
+            for ( String literal : new String[]{ "true", "false", "null" } ) {
+                if ( json.startsWith( literal, index ) ) {
+                    index += literal.length();
+                    return literal.equals( "null" ) ? null : Boolean.valueOf( literal );
+                }
+            }
+            throw new IllegalArgumentException( "Unexpected char at " + index + " in " + json );
+        }
+
+        private String string() {
+            expect( '"' );
+            final StringBuilder sb = new StringBuilder();
+            char c;
+            while ( ( c = json.charAt( index++ ) ) != '"' ) {
+                if ( c == '\\' ) {
+                    c = json.charAt( index++ );
+                    switch ( c ) {
+                        case 'b':
+                            c = '\b';
+                            break;
+                        case 'f':
+                            c = '\f';
+                            break;
+                        case 'n':
+                            c = '\n';
+                            break;
+                        case 'r':
+                            c = '\r';
+                            break;
+                        case 't':
+                            c = '\t';
+                            break;
+                        case 'u':
+                            c = (char) Integer.parseInt( json.substring( index, index + 4 ), 16 );
+                            index += 4;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                sb.append( c );
+            }
+            return sb.toString();
+        }
+
+        private void expect( char c ) {
+            if ( json.charAt( index++ ) != c ) {
+                throw new IllegalArgumentException( "Expected " + c + " at " + ( index - 1 ) + " in " + json );
+            }
+        }
+
+        /**
+         * Get the length of the value written by Gson with its default settings, the html chars are escaped
+         *
+         * @param value Value read
+         * @return The number of chars of the json
+         */
+        static int length( Object value ) {
+            if ( value instanceof Map ) {
+                int size = 2 + Math.max( 0, ( (Map<?, ?>) value ).size() - 1 );
+                for ( Map.Entry<?, ?> entry : ( (Map<?, ?>) value ).entrySet() ) {
+                    size += length( entry.getKey() ) + 1 + length( entry.getValue() );
+                }
+                return size;
+            }
+            if ( value instanceof List ) {
+                int size = 2 + Math.max( 0, ( (List<?>) value ).size() - 1 );
+                for ( Object element : (List<?>) value ) {
+                    size += length( element );
+                }
+                return size;
+            }
+            if ( value instanceof String ) {
+                int size = 2;
+                for ( char c : ( (String) value ).toCharArray() ) {
+                    size += "\"\\\n\r\t\b\f".indexOf( c ) >= 0 ? 2 : "<>&='\u2028\u2029".indexOf( c ) >= 0 || c < 0x20 ? 6 : 1;
+                }
+                return size;
+            }
+            return String.valueOf( value ).length();
+        }
+
+    }
+
+}
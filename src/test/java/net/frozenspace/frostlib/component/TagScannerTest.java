@@ -0,0 +1,137 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.component;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Check the {@link TagScanner} against the regex it replaced, kept here as the reference
+ *
+ * @author Frozen
+ */
+public class TagScannerTest {
+
+    private static final Pattern PATTERN = Pattern.compile( "((?<start><)(?<token>([^<>]+)|([^<>]+\"(?<inner>[^\"]+)\"))(?<end>>))+?" );
+
+    private static final String[] FIXED = {
+            "", "plain text", "<red>Hello</red>", "<>", "<<>>", "<<a>>", "a < b > c", "<a<b>c>",
+            "<a\"b\">", "<a\"b\"c\">", "<a\"b\"c\"d\">", "<a\"\">", "<\"b\">", "<a\"<b>\">", "<a\"x<b\">",
+            "<hover:show_text:\"<red>text</red>\">hover</hover>", "<click:run_command:\"/say <b>\">x",
+            "<a\"b", "<a\"b\"", "\"<a>\"", "<a\"b\"><c\"d\">", "<a\"b>c\">", "<<<<a\">\">"
+    };
+
+    @Test
+    public void fixedInputs() {
+        for ( String input : FIXED ) {
+            check( input );
+        }
+    }
+
+    @Test
+    public void randomInputs() {
+        final Random random = new Random( 2 );
+        final char[] alphabet = { '<', '>', '"', 'a', 'b', ':', ' ' };
+        for ( int n = 0; n < 200000; n++ ) {
+            final char[] chars = new char[random.nextInt( 24 )];
+            for ( int i = 0; i < chars.length; i++ ) {
+                chars[i] = alphabet[random.nextInt( alphabet.length )];
+            }
+            check( new String( chars ) );
+        }
+    }
+
+    @Test( timeout = 5000 )
+    public void linearOnRunsOfOpeningBrackets() {
+        final StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < 500000; i++ ) {
+            sb.append( i % 1000 == 0 ? "\"" : "<" );
+        }
+        final String input = sb.toString();
+        assertFalse( new TagScanner( input ).find() );
+        assertEquals( input, ComponentParser.stripTokens( input ) );
+        assertEquals( input, ComponentParser.escapeTokens( input ) );
+    }
+
+    private static void check( String input ) {
+        assertEquals( input, matches( input ), scan( input ) );
+        assertEquals( input, strip( input ), ComponentParser.stripTokens( input ) );
+        assertEquals( input, escape( input ), ComponentParser.escapeTokens( input ) );
+    }
+
+    private static List<String> matches( String input ) {
+        final List<String> matches = new ArrayList<>();
+        final Matcher matcher = PATTERN.matcher( input );
+        while ( matcher.find() ) {
+            matches.add( matcher.start() + "-" + matcher.end() + " " + matcher.group( "token" ) + " " + matcher.group( "inner" ) );
+        }
+        return matches;
+    }
+
+    private static List<String> scan( String input ) {
+        final List<String> matches = new ArrayList<>();
+        final TagScanner scanner = new TagScanner( input );
+        while ( scanner.find() ) {
+            matches.add( scanner.start() + "-" + scanner.end() + " " + scanner.token() + " " + scanner.inner() );
+        }
+        return matches;
+    }
+
+    private static String strip( String input ) {
+        final StringBuilder sb = new StringBuilder();
+        final Matcher matcher = PATTERN.matcher( input );
+        int lastEnd = 0;
+        while ( matcher.find() ) {
+            sb.append( input, lastEnd, matcher.start() );
+            lastEnd = matcher.end();
+        }
+        return sb.append( input.substring( lastEnd ) ).toString();
+    }
+
+    private static String escape( String input ) {
+        final StringBuilder sb = new StringBuilder();
+        final Matcher matcher = PATTERN.matcher( input );
+        int lastEnd = 0;
+        while ( matcher.find() ) {
+            sb.append( input, lastEnd, matcher.start() );
+            lastEnd = matcher.end();
+            String token = matcher.group( "token" );
+            final String inner = matcher.group( "inner" );
+            if ( inner != null ) {
+                token = token.replace( inner, escape( inner ) );
+            }
+            sb.append( "\\<" ).append( token ).append( "\\>" );
+        }
+        return sb.append( input.substring( lastEnd ) ).toString();
+    }
+
+}
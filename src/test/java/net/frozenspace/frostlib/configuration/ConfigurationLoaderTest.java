@@ -0,0 +1,308 @@
+/*
+    MIT License
+
+    Copyright (c) 2018 FrozenLegend
+
+    Permission is hereby granted, free of charge, to any person obtaining a copy
+    of this software and associated documentation files (the "Software"), to deal
+    in the Software without restriction, including without limitation the rights
+    to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+    copies of the Software, and to permit persons to whom the Software is
+    furnished to do so, subject to the following conditions:
+
+    The above copyright notice and this permission notice shall be included in all
+    copies or substantial portions of the Software.
+
+    THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+    IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+    FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+    AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+    LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+    OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+    SOFTWARE.
+*/
+package net.frozenspace.frostlib.configuration;
+
+import org.bukkit.plugin.Plugin;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check that the values saved are the values of the fields at the time of the save
+ *
+ * @author Frozen
+ */
+public class ConfigurationLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void asyncSavesCopyTheCollections() throws IOException {
+        final List<Runnable> tasks = new ArrayList<>();
+        final ConfigurationLoader loader = new ConfigurationLoader( plugin( folder.getRoot() ) ).useExecutor( tasks::add );
+        final Settings settings = new Settings();
+        settings.names.add( "first" );
+        settings.ranks.put( "kept", "value" );
+        settings.tags[0] = "old";
+        loader.saveAsync( settings );
+        settings.names.add( "second" );
+        settings.ranks.put( "added", "value" );
+        settings.tags[0] = "new";
+        // run the write now, the tasks it submits too
+        for ( int i = 0; i < tasks.size(); i++ ) {
+            tasks.get( i ).run();
+        }
+        final String content = content();
+        assertTrue( content, content.contains( "first" ) && content.contains( "kept" ) && content.contains( "old" ) );
+        assertFalse( content, content.contains( "second" ) || content.contains( "added" ) || content.contains( "new" ) );
+    }
+
+    @Test
+    public void valuesModifiedInPlaceAreWritten() throws IOException {
+        final ConfigurationLoader loader = new ConfigurationLoader( plugin( folder.getRoot() ) );
+        final Settings settings = new Settings();
+        settings.date = new Date( 0 );
+        loader.save( settings );
+        assertTrue( content(), content().contains( "1970-01-01" ) );
+        // 2000-01-01T00:00:00Z
+        settings.date.setTime( 946684800000L );
+        loader.save( settings );
+        assertTrue( content(), content().contains( "2000-01-01" ) );
+    }
+
+    @Test( timeout = 10000 )
+    public void savesAndLoadsRunInCallOrder() throws Exception {
+        final CountDownLatch gate = new CountDownLatch( 1 );
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            // the asynchronous writes wait for the gate
+            final ConfigurationLoader loader = new ConfigurationLoader( plugin( folder.getRoot() ) ).useExecutor( task -> pool.execute( () -> {
+                try {
+                    gate.await();
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                }
+                task.run();
+            } ) );
+            final Names settings = new Names();
+            settings.names.add( "async" );
+            final CompletableFuture<Void> async = loader.saveAsync( settings );
+            release( gate );
+            assertEquals( Collections.singletonList( "async" ), loader.load( new Names() ).names );
+            assertTrue( async.isDone() );
+
+            final CountDownLatch second = new CountDownLatch( 1 );
+            final ConfigurationLoader ordered = new ConfigurationLoader( plugin( folder.getRoot() ) ).useExecutor( task -> pool.execute( () -> {
+                try {
+                    second.await();
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                }
+                task.run();
+            } ) );
+            settings.names.set( 0, "first" );
+            final CompletableFuture<Void> first = ordered.saveAsync( settings );
+            settings.names.set( 0, "last" );
+            release( second );
+            ordered.save( settings );
+            first.join();
+            final String content = content( "names" );
+            assertTrue( content, content.contains( "last" ) && !content.contains( "first" ) );
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test( timeout = 10000 )
+    public void saveWritesNowInWriteBehindMode() throws IOException {
+        final ConfigurationLoader loader = new ConfigurationLoader( plugin( folder.getRoot() ) ).writeBehind( 1, TimeUnit.HOURS );
+        final Names names = new Names();
+        names.names.add( "delayed" );
+        final CompletableFuture<Void> delayed = loader.saveAsync( names );
+        assertEquals( Collections.singletonList( "delayed" ), loader.load( new Names() ).names );
+        delayed.join();
+
+        names.names.set( 0, "replaced" );
+        final CompletableFuture<Void> replaced = loader.saveAsync( names );
+        names.names.set( 0, "saved" );
+        loader.save( names );
+        assertTrue( replaced.isDone() );
+        final String content = content( "names" );
+        assertTrue( content, content.contains( "saved" ) && !content.contains( "replaced" ) );
+        loader.shutdown();
+    }
+
+    @Test( timeout = 10000 )
+    public void shutdownWritesTheDelayedSavesAndStopsTheThread() throws Exception {
+        final ConfigurationLoader loader = new ConfigurationLoader( plugin( folder.getRoot() ) ).writeBehind( 1, TimeUnit.HOURS );
+        final Names names = new Names();
+        names.names.add( "delayed" );
+        final CompletableFuture<Void> delayed = loader.saveAsync( names );
+        loader.shutdown();
+        assertTrue( delayed.isDone() );
+        assertTrue( content( "names" ).contains( "delayed" ) );
+        for ( Thread thread : Thread.getAllStackTraces().keySet() ) {
+            if ( thread.getName().equals( "FrostLib Configuration Thread" ) ) {
+                thread.join();
+            }
+        }
+    }
+
+    @Test
+    public void replacedFilesKeepTheirPermissions() throws IOException {
+        final Path file = new File( folder.getRoot(), "names.yml" ).toPath();
+        final ConfigurationLoader loader = new ConfigurationLoader( plugin( folder.getRoot() ) );
+        final Names names = new Names();
+        names.names.add( "first" );
+        loader.save( names );
+        Assume.assumeTrue( Files.getFileStore( file ).supportsFileAttributeView( PosixFileAttributeView.class ) );
+        final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString( "rw-r--r--" );
+        Files.setPosixFilePermissions( file, permissions );
+        names.names.set( 0, "second" );
+        loader.save( names );
+        assertTrue( content( "names" ).contains( "second" ) );
+        assertEquals( permissions, Files.getPosixFilePermissions( file ) );
+        names.names.set( 0, "third" );
+        loader.saveAsync( names ).join();
+        assertTrue( content( "names" ).contains( "third" ) );
+        assertEquals( permissions, Files.getPosixFilePermissions( file ) );
+        loader.shutdown();
+    }
+
+    @Test
+    public void unchangedFilesAreNotWritten() throws IOException {
+        final Path file = new File( folder.getRoot(), "names.yml" ).toPath();
+        final ConfigurationLoader loader = new ConfigurationLoader( plugin( folder.getRoot() ) );
+        final Names names = new Names();
+        names.names.add( "first" );
+        loader.save( names );
+        // each write replaces the file by a new one
+        final Object written = Files.readAttributes( file, BasicFileAttributes.class ).fileKey();
+        Assume.assumeNotNull( written );
+        loader.save( names );
+        assertEquals( written, Files.readAttributes( file, BasicFileAttributes.class ).fileKey() );
+        names.names.set( 0, "second" );
+        loader.save( names );
+        assertNotEquals( written, Files.readAttributes( file, BasicFileAttributes.class ).fileKey() );
+    }
+
+    @Test
+    public void filesModifiedOnDiskAreWrittenAgain() throws IOException {
+        final Path file = new File( folder.getRoot(), "names.yml" ).toPath();
+        final ConfigurationLoader loader = new ConfigurationLoader( plugin( folder.getRoot() ) );
+        final Names names = new Names();
+        names.names.add( "kept" );
+        loader.save( names );
+        final long modified = file.toFile().lastModified();
+        // edited in the same tick of the modification time, detected by the length
+        Files.write( file, "names:\n- edited by hand\n".getBytes( StandardCharsets.UTF_8 ) );
+        assertTrue( file.toFile().setLastModified( modified ) );
+        loader.save( names );
+        final String content = content( "names" );
+        assertTrue( content, content.contains( "kept" ) && !content.contains( "edited" ) );
+    }
+
+    @Test
+    public void writeBehindWritesTheLastSaveOnce() throws IOException {
+        final List<Runnable> tasks = new ArrayList<>();
+        final ConfigurationLoader loader = new ConfigurationLoader( plugin( folder.getRoot() ) )
+                .useExecutor( tasks::add )
+                .writeBehind( 1, TimeUnit.HOURS );
+        final Names names = new Names();
+        final List<CompletableFuture<Void>> saves = new ArrayList<>();
+        for ( String value : new String[]{ "first", "second", "last" } ) {
+            names.names.add( value );
+            saves.add( loader.saveAsync( names ) );
+        }
+        assertFalse( new File( folder.getRoot(), "names.yml" ).exists() );
+        loader.flush();
+        assertEquals( 1, tasks.size() );
+        tasks.get( 0 ).run();
+        assertTrue( content( "names" ).contains( "last" ) );
+        for ( CompletableFuture<Void> save : saves ) {
+            assertTrue( save.isDone() );
+        }
+    }
+
+    private static void release( CountDownLatch gate ) {
+        new Thread( () -> {
+            try {
+                Thread.sleep( 100 );
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+            gate.countDown();
+        } ).start();
+    }
+
+    private String content() throws IOException {
+        return content( "settings" );
+    }
+
+    private String content( String name ) throws IOException {
+        return new String( Files.readAllBytes( new File( folder.getRoot(), name + ".yml" ).toPath() ), StandardCharsets.UTF_8 );
+    }
+
+    private static Plugin plugin( File dataFolder ) {
+        return (Plugin) Proxy.newProxyInstance( Plugin.class.getClassLoader(), new Class<?>[]{ Plugin.class }, ( proxy, method, args ) -> {
+            switch ( method.getName() ) {
+                case "getDataFolder":
+                    return dataFolder;
+                case "getLogger":
+                    return Logger.getLogger( "ConfigurationLoaderTest" );
+                default:
+                    return null;
+            }
+        } );
+    }
+
+    @Configuration( value = "settings", resource = false )
+    public static class Settings {
+
+        public List<String> names = new ArrayList<>();
+        public Map<String, String> ranks = new LinkedHashMap<>();
+        public String[] tags = new String[1];
+        public Date date;
+
+    }
+
+    @Configuration( value = "names", resource = false )
+    public static class Names {
+
+        public List<String> names = new ArrayList<>();
+
+    }
+
+}